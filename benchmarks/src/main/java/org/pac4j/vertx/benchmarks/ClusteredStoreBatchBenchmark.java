@@ -0,0 +1,97 @@
+package org.pac4j.vertx.benchmarks;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.spi.cluster.hazelcast.HazelcastClusterManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pac4j.vertx.core.store.VertxClusteredMapStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compare looped and batched accesses to a {@link VertxClusteredMapStore} on a two members Hazelcast cluster running
+ * in the same JVM.
+ *
+ * @since 7.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClusteredStoreBatchBenchmark {
+
+    @Param({"10", "100"})
+    private int keyCount;
+
+    private Vertx member;
+    private Vertx client;
+    private VertxClusteredMapStore<String, String> store;
+    private List<String> keys;
+    private Map<String, String> values;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        member = await(Vertx.builder().withClusterManager(new HazelcastClusterManager()).buildClustered());
+        client = await(Vertx.builder().withClusterManager(new HazelcastClusterManager()).buildClustered());
+        store = new VertxClusteredMapStore<>(client);
+        keys = new ArrayList<>(keyCount);
+        values = new LinkedHashMap<>();
+        for (int i = 0; i < keyCount; i++) {
+            keys.add("key" + i);
+            values.put("key" + i, "value" + i);
+        }
+        store.setAll(values);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        await(store.close());
+        await(client.close());
+        await(member.close());
+    }
+
+    @Benchmark
+    public void loopedGet(final Blackhole bh) {
+        for (final String key : keys) {
+            bh.consume(store.get(key));
+        }
+    }
+
+    @Benchmark
+    public void batchedGet(final Blackhole bh) {
+        bh.consume(store.getAll(keys));
+    }
+
+    @Benchmark
+    public void loopedSet() {
+        values.forEach(store::set);
+    }
+
+    @Benchmark
+    public void batchedSet() {
+        store.setAll(values);
+    }
+
+    private static <T> T await(final Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(1, TimeUnit.MINUTES);
+    }
+}
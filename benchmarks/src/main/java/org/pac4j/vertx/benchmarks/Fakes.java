@@ -0,0 +1,113 @@
+package org.pac4j.vertx.benchmarks;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.net.HostAndPort;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.web.RoutingContext;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In memory stand-ins of a routing context and its request, to measure the pac4j code without any I/O. Only the
+ * methods used by the web context are implemented.
+ *
+ * @since 7.0.4
+ */
+final class Fakes {
+
+    private Fakes() {
+    }
+
+    static RoutingContext routingContext(final HttpServerRequest request) {
+        final Map<String, Object> data = new HashMap<>();
+        return proxy(RoutingContext.class, (method, args) -> {
+            switch (method) {
+                case "request":
+                    return request;
+                case "get":
+                    return data.get((String) args[0]);
+                case "put":
+                    data.put((String) args[0], args[1]);
+                    return null;
+                case "session":
+                case "user":
+                    return null;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    static HttpServerRequest request(final String host, final int port, final String path,
+                                     final MultiMap headers, final MultiMap params) {
+        final String query = queryString(params);
+        final String uri = query.isEmpty() ? path : path + "?" + query;
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        return proxy(HttpServerRequest.class, (method, args) -> {
+            switch (method) {
+                case "scheme":
+                    return "https";
+                case "authority":
+                    return HostAndPort.authority(host, port);
+                case "absoluteURI":
+                    return "https://" + host + ":" + port + uri;
+                case "uri":
+                    return uri;
+                case "path":
+                    return path;
+                case "method":
+                    return HttpMethod.GET;
+                case "headers":
+                    return headers;
+                case "getHeader":
+                    return headers.get(args[0].toString());
+                case "params":
+                    return params;
+                case "getParam":
+                    return params.get((String) args[0]);
+                case "formAttributes":
+                    return form;
+                case "remoteAddress":
+                    return SocketAddress.inetSocketAddress(52000, "10.0.0.12");
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    private static String queryString(final MultiMap params) {
+        final StringBuilder sb = new StringBuilder();
+        params.forEach(e -> {
+            if (sb.length() > 0) {
+                sb.append('&');
+            }
+            sb.append(e.getKey()).append('=').append(e.getValue());
+        });
+        return sb.toString();
+    }
+
+    @FunctionalInterface
+    private interface Answer {
+        Object answer(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final Class<T> type, final Answer answer) {
+        return (T) Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[] {type}, (p, m, args) -> {
+            switch (m.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "equals":
+                    return p == args[0];
+                case "toString":
+                    return type.getSimpleName();
+                default:
+                    return answer.answer(m.getName(), args);
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package org.pac4j.vertx.benchmarks;
+
+import com.nimbusds.oauth2.sdk.token.BearerAccessToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.vertx.core.DefaultJsonConverter;
+import org.pac4j.vertx.core.JsonConverter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the values of the clustered store by the {@link DefaultJsonConverter}.
+ *
+ * @since 7.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonConverterBenchmark {
+
+    @Param({"profile", "accessToken"})
+    private String valueType;
+
+    private final JsonConverter converter = DefaultJsonConverter.getInstance();
+    private Object value;
+    private Object encoded;
+
+    @Setup
+    public void setUp() {
+        value = "profile".equals(valueType)
+                ? Profiles.profile("4f9c2a7e-0b1d-4e6f-8a3c-5b7d9e1f2a4c")
+                : new BearerAccessToken("2YotnFZFEjr1zCsicMWpAA", 3600, null);
+        encoded = converter.encodeObject(value);
+    }
+
+    @Benchmark
+    public Object encode() {
+        return converter.encodeObject(value);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return converter.decodeObject(encoded);
+    }
+}
@@ -0,0 +1,90 @@
+package org.pac4j.vertx.benchmarks;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.vertx.auth.Pac4jUser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster serialization of a {@link Pac4jUser}, as done when a clustered session store writes the session: the
+ * binary format against the former JSON one, which is still read. The serialized size is reported by the
+ * {@link WriteCounters} of the write benchmark.
+ *
+ * @since 7.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Pac4jUserBenchmark {
+
+    @Param({"binary", "json"})
+    private String format;
+
+    private Pac4jUser user;
+    private Buffer serialized;
+
+    @Setup
+    public void setUp() {
+        user = new Pac4jUser(Profiles.sessionProfiles().values());
+        serialized = serialize();
+    }
+
+    /**
+     * Events of the write benchmark, summed over the measurement: the serialized size is {@code writtenBytes / writes}.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WriteCounters {
+        public long writes;
+        public long writtenBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            writes = 0;
+            writtenBytes = 0;
+        }
+    }
+
+    @Benchmark
+    public Buffer write(final WriteCounters counters) {
+        final Buffer buffer = serialize();
+        counters.writes++;
+        counters.writtenBytes += buffer.length();
+        return buffer;
+    }
+
+    private Buffer serialize() {
+        final Buffer buffer = Buffer.buffer();
+        if ("json".equals(format)) {
+            final Buffer json = Json.CODEC.toBuffer(user, false);
+            buffer.appendInt(json.length()).appendBuffer(json);
+        } else {
+            user.writeToBuffer(buffer);
+        }
+        return buffer;
+    }
+
+    @Benchmark
+    public Pac4jUser read() {
+        final Pac4jUser read = new Pac4jUser();
+        read.readFromBuffer(0, serialized);
+        return read;
+    }
+}
@@ -0,0 +1,56 @@
+package org.pac4j.vertx.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.vertx.context.session.BinaryProfileCodec;
+import org.pac4j.vertx.context.session.JavaProfileCodec;
+import org.pac4j.vertx.context.session.ProfileCodec;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding and decoding of the user profiles kept in the session by the {@code VertxSessionStore}.
+ *
+ * @since 7.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProfileCodecBenchmark {
+
+    @Param({"binary", "java"})
+    private String codecName;
+
+    private ProfileCodec codec;
+    private Object profiles;
+    private Object encoded;
+
+    @Setup
+    public void setUp() {
+        codec = "binary".equals(codecName) ? BinaryProfileCodec.INSTANCE : JavaProfileCodec.INSTANCE;
+        profiles = Profiles.sessionProfiles();
+        encoded = codec.encode(profiles);
+    }
+
+    @Benchmark
+    public Object encode() {
+        return codec.encode(profiles);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,45 @@
+package org.pac4j.vertx.benchmarks;
+
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+
+/**
+ * Realistic user profiles, as found in sessions after an OpenID Connect login.
+ *
+ * @since 7.0.4
+ */
+final class Profiles {
+
+    private Profiles() {
+    }
+
+    static CommonProfile profile(final String id) {
+        final CommonProfile profile = new CommonProfile();
+        profile.setId(id);
+        profile.setClientName("OidcClient");
+        profile.addRole("user");
+        profile.addRole("orders:read");
+        profile.addAttribute("sub", id);
+        profile.addAttribute("email", id + "@example.com");
+        profile.addAttribute("email_verified", Boolean.TRUE);
+        profile.addAttribute("given_name", "Jane");
+        profile.addAttribute("family_name", "Doe");
+        profile.addAttribute("locale", "en-US");
+        profile.addAttribute("iss", "https://idp.example.com/realms/main");
+        profile.addAttribute("aud", Arrays.asList("app", "api"));
+        profile.addAttribute("iat", new Date(1_700_000_000_000L));
+        profile.addAttribute("exp", 1_700_003_600L);
+        return profile;
+    }
+
+    static LinkedHashMap<String, UserProfile> sessionProfiles() {
+        final LinkedHashMap<String, UserProfile> profiles = new LinkedHashMap<>();
+        final UserProfile profile = profile("4f9c2a7e-0b1d-4e6f-8a3c-5b7d9e1f2a4c");
+        profiles.put(profile.getClientName(), profile);
+        return profiles;
+    }
+}
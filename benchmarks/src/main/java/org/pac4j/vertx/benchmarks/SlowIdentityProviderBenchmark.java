@@ -0,0 +1,141 @@
+package org.pac4j.vertx.benchmarks;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.sstore.LocalSessionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.exception.CredentialsException;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.http.client.direct.HeaderClient;
+import org.pac4j.vertx.benchmarks.load.MockOidcProvider;
+import org.pac4j.vertx.context.session.VertxSessionStore;
+import org.pac4j.vertx.handler.impl.ExecutionMode;
+import org.pac4j.vertx.handler.impl.SecurityHandler;
+import org.pac4j.vertx.handler.impl.SecurityHandlerOptions;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link SecurityHandler} when the identity provider is slow, with the security logic on the default
+ * worker pool versus on virtual threads. Each operation is a burst of concurrent requests to a resource protected by a
+ * header client whose authenticator makes a blocking user info request to the mock OpenID Connect provider, which
+ * answers after a fixed latency. The virtual thread mode requires JDK 21+.
+ *
+ * @since 7.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SlowIdentityProviderBenchmark {
+
+    @Param({"WORKER", "VIRTUAL_THREAD"})
+    private ExecutionMode mode;
+
+    @Param({"200"})
+    private int concurrentRequests;
+
+    @Param({"50"})
+    private long idpLatencyMillis;
+
+    private Vertx vertx;
+    private HttpServer server;
+    private HttpClient client;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        vertx = Vertx.vertx();
+        final MockOidcProvider identityProvider = new MockOidcProvider(vertx, idpLatencyMillis);
+        await(identityProvider.start());
+        final URI userInfoUri = URI.create(identityProvider.userInfoUri());
+        final java.net.http.HttpClient userInfoClient = java.net.http.HttpClient.newHttpClient();
+
+        // the blocking user info request of a direct client, e.g. a bearer client validating opaque tokens
+        final HeaderClient headerClient = new HeaderClient("Authorization", (ctx, credentials) -> {
+            final HttpResponse<String> response;
+            try {
+                response = userInfoClient.send(HttpRequest.newBuilder(userInfoUri)
+                        .header("Authorization", ((TokenCredentials) credentials).getToken()).build(),
+                        HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                throw new CredentialsException(e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CredentialsException("Interrupted");
+            }
+            if (response.statusCode() != 200) {
+                throw new CredentialsException("User info request failed: " + response.statusCode());
+            }
+            final CommonProfile profile = new CommonProfile();
+            profile.setId(new JsonObject(response.body()).getString("sub"));
+            credentials.setUserProfile(profile);
+            return Optional.of(credentials);
+        });
+        final VertxSessionStore sessionStore = new VertxSessionStore(LocalSessionStore.create(vertx));
+        final Config config = new Config(new Clients(headerClient));
+        config.setSessionStoreFactory(parameters -> sessionStore);
+        final SecurityHandler securityHandler = new SecurityHandler(vertx, sessionStore, config,
+                new SecurityHandlerOptions().setClients(headerClient.getName()).setExecutionMode(mode));
+
+        final Router router = Router.router(vertx);
+        router.get("/protected").handler(securityHandler);
+        router.get("/protected").handler(rc -> rc.end("ok"));
+
+        server = await(vertx.createHttpServer().requestHandler(router).listen(0, "localhost"));
+        client = vertx.createHttpClient(new HttpClientOptions().setKeepAlive(true),
+                new PoolOptions().setHttp1MaxSize(concurrentRequests));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        await(vertx.close());
+    }
+
+    @Benchmark
+    public Object burst() throws Exception {
+        final List<Future<Buffer>> requests = new ArrayList<>(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            requests.add(client.request(HttpMethod.GET, server.actualPort(), "localhost", "/protected")
+                    .compose(req -> req.putHeader("Authorization", "Bearer token").send())
+                    .compose(response -> response.statusCode() == 200 ? response.body()
+                            : Future.failedFuture("Unexpected status " + response.statusCode())));
+        }
+        return await(Future.all(requests));
+    }
+
+    private static <T> T await(final Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,56 @@
+package org.pac4j.vertx.benchmarks.load;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how long the event loops are kept busy: a periodic timer runs on each event loop and any delay of its
+ * ticks beyond the period is time the loop could not react.
+ *
+ * @since 7.0.4
+ */
+final class EventLoopProbe {
+
+    private static final long PERIOD_MILLIS = 5;
+
+    private final LongAdder blockedNanos = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile boolean recording;
+
+    static Future<EventLoopProbe> deploy(final Vertx vertx, final int eventLoops) {
+        final EventLoopProbe probe = new EventLoopProbe();
+        return vertx.deployVerticle(() -> context -> {
+            final long period = TimeUnit.MILLISECONDS.toNanos(PERIOD_MILLIS);
+            final long[] last = {System.nanoTime()};
+            context.owner().setPeriodic(PERIOD_MILLIS, id -> {
+                final long now = System.nanoTime();
+                final long lag = now - last[0] - period;
+                last[0] = now;
+                if (lag > 0 && probe.recording) {
+                    probe.blockedNanos.add(lag);
+                    probe.maxLagNanos.accumulateAndGet(lag, Math::max);
+                }
+            });
+            return Future.succeededFuture();
+        }, new DeploymentOptions().setInstances(eventLoops)).map(probe);
+    }
+
+    void startRecording() {
+        recording = true;
+    }
+
+    JsonObject report(final double seconds, final int eventLoops) {
+        final double blockedMillis = blockedNanos.sum() / 1_000_000d;
+        return new JsonObject()
+                .put("eventLoops", eventLoops)
+                .put("blockedMillis", LatencyRecorder.round(blockedMillis))
+                .put("blockedMillisPerSecondPerEventLoop", LatencyRecorder.round(blockedMillis / seconds / eventLoops))
+                .put("maxLagMillis", LatencyRecorder.round(maxLagNanos.get() / 1_000_000d));
+    }
+}
@@ -0,0 +1,65 @@
+package org.pac4j.vertx.benchmarks.load;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one kind of operation, kept in full so that the percentiles are exact.
+ *
+ * @since 7.0.4
+ */
+final class LatencyRecorder {
+
+    private final String name;
+    private final LongAdder errors = new LongAdder();
+    private long[] latencies = new long[1024];
+    private int count;
+
+    LatencyRecorder(final String name) {
+        this.name = name;
+    }
+
+    synchronized void record(final long latencyNanos) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyNanos;
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    synchronized JsonObject report(final double seconds) {
+        final long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new JsonObject()
+                .put("operation", name)
+                .put("count", count)
+                .put("errors", errors.sum())
+                .put("throughputPerSecond", round(count / seconds))
+                .put("p50Millis", percentile(sorted, 0.50))
+                .put("p90Millis", percentile(sorted, 0.90))
+                .put("p99Millis", percentile(sorted, 0.99))
+                .put("p999Millis", percentile(sorted, 0.999))
+                .put("maxMillis", sorted.length == 0 ? 0 : millis(sorted[sorted.length - 1]));
+    }
+
+    private static double percentile(final long[] sorted, final double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        final int index = (int) Math.ceil(p * sorted.length) - 1;
+        return millis(sorted[Math.max(0, index)]);
+    }
+
+    private static double millis(final long nanos) {
+        return round(nanos / 1_000_000d);
+    }
+
+    static double round(final double value) {
+        return Math.round(value * 1000d) / 1000d;
+    }
+}
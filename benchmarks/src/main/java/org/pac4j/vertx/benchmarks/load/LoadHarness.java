@@ -0,0 +1,346 @@
+package org.pac4j.vertx.benchmarks.load;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientOptions;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.core.http.RequestOptions;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.SessionHandler;
+import io.vertx.ext.web.sstore.LocalSessionStore;
+import org.pac4j.core.client.Clients;
+import org.pac4j.core.config.Config;
+import org.pac4j.oidc.client.OidcClient;
+import org.pac4j.oidc.config.OidcConfiguration;
+import org.pac4j.vertx.context.session.VertxSessionStore;
+import org.pac4j.vertx.handler.impl.CallbackHandler;
+import org.pac4j.vertx.handler.impl.CallbackHandlerOptions;
+import org.pac4j.vertx.handler.impl.ExecutionMode;
+import org.pac4j.vertx.handler.impl.LogoutHandler;
+import org.pac4j.vertx.handler.impl.LogoutHandlerOptions;
+import org.pac4j.vertx.handler.impl.SecurityHandler;
+import org.pac4j.vertx.handler.impl.SecurityHandlerOptions;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>End-to-end load test of the pac4j handlers, on a single machine and without network access.</p>
+ *
+ * <p>It starts a mock OpenID Connect provider and an application protected by the {@link SecurityHandler}, with the
+ * {@link CallbackHandler} and {@link LogoutHandler}, each on its own Vert.x instance. Virtual users then loop over: a
+ * full login (redirection to the provider, callback, original page), a number of authenticated requests and a
+ * logout. The report, printed and written as JSON, has the latency percentiles of each operation, the time the
+ * application event loops were blocked and the allocation rate of the JVM.</p>
+ *
+ * <p>Options, as <code>--name=value</code>: <code>users</code> (50), <code>warmup</code> seconds (10),
+ * <code>duration</code> seconds (30), <code>requestsPerLogin</code> (10), <code>idpLatencyMillis</code> (0),
+ * <code>mode</code> of the handlers (WORKER), <code>eventLoops</code> of the application (number of cores) and
+ * <code>out</code> file (load-result.json).</p>
+ *
+ * @since 7.0.4
+ */
+public final class LoadHarness {
+
+    private static final String SESSION_COOKIE = "vertx-web.session";
+
+    private final Settings settings;
+    private final LatencyRecorder login = new LatencyRecorder("login");
+    private final LatencyRecorder request = new LatencyRecorder("authenticatedRequest");
+    private final LatencyRecorder logout = new LatencyRecorder("logout");
+
+    private volatile long measureStart = Long.MAX_VALUE;
+    private volatile long deadline;
+    private HttpClient client;
+    private String appBase;
+
+    private LoadHarness(final Settings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final JsonObject report = new LoadHarness(Settings.parse(args)).run();
+        System.out.println(report.encodePrettily());
+    }
+
+    private JsonObject run() throws Exception {
+        final Vertx idpVertx = Vertx.vertx();
+        final Vertx appVertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(settings.eventLoops));
+        final Vertx clientVertx = Vertx.vertx();
+        try {
+            final MockOidcProvider idp = new MockOidcProvider(idpVertx, settings.idpLatencyMillis);
+            await(idp.start());
+            final int port = freePort();
+            appBase = "http://localhost:" + port;
+            await(appVertx.createHttpServer().requestHandler(application(appVertx, idp)).listen(port, "localhost"));
+            final EventLoopProbe probe = await(EventLoopProbe.deploy(appVertx, settings.eventLoops));
+
+            client = clientVertx.createHttpClient(new HttpClientOptions().setKeepAlive(true),
+                    new PoolOptions().setHttp1MaxSize(settings.users * 2));
+
+            final long now = System.nanoTime();
+            deadline = now + TimeUnit.SECONDS.toNanos(settings.warmupSeconds + settings.durationSeconds);
+            final List<Future<Void>> users = new ArrayList<>(settings.users);
+            for (int i = 0; i < settings.users; i++) {
+                users.add(new VirtualUser().start(clientVertx));
+            }
+
+            Thread.sleep(TimeUnit.SECONDS.toMillis(settings.warmupSeconds));
+            measureStart = System.nanoTime();
+            probe.startRecording();
+            final long allocatedAtStart = allocatedBytes();
+            final long gcAtStart = gcCount();
+
+            await(Future.join(users));
+            final double seconds = (System.nanoTime() - measureStart) / 1_000_000_000d;
+            final long allocated = allocatedBytes() - allocatedAtStart;
+
+            final JsonObject report = new JsonObject()
+                    .put("settings", settings.toJson())
+                    .put("measuredSeconds", LatencyRecorder.round(seconds))
+                    .put("operations", new JsonArray()
+                            .add(login.report(seconds))
+                            .add(request.report(seconds))
+                            .add(logout.report(seconds)))
+                    .put("eventLoop", probe.report(seconds, settings.eventLoops))
+                    .put("allocation", new JsonObject()
+                            .put("note", "whole JVM: application, mock provider and load generator")
+                            .put("megabytesPerSecond", LatencyRecorder.round(allocated / seconds / (1024 * 1024)))
+                            .put("gcCount", gcCount() - gcAtStart));
+            Files.writeString(Paths.get(settings.out), report.encodePrettily());
+            return report;
+        } finally {
+            clientVertx.close();
+            appVertx.close();
+            idpVertx.close();
+        }
+    }
+
+    private Router application(final Vertx vertx, final MockOidcProvider idp) {
+        final LocalSessionStore vertxSessionStore = LocalSessionStore.create(vertx);
+        final VertxSessionStore sessionStore = new VertxSessionStore(vertxSessionStore);
+
+        final OidcConfiguration oidcConfiguration = new OidcConfiguration();
+        oidcConfiguration.setClientId(MockOidcProvider.CLIENT_ID);
+        oidcConfiguration.setSecret(MockOidcProvider.CLIENT_SECRET);
+        oidcConfiguration.setDiscoveryURI(idp.discoveryUri());
+        final OidcClient oidcClient = new OidcClient(oidcConfiguration);
+        final Config config = new Config(new Clients(appBase + "/callback", oidcClient));
+        config.setSessionStoreFactory(parameters -> sessionStore);
+        // fetch the provider metadata now rather than on the first request
+        oidcClient.init();
+
+        final Router router = Router.router(vertx);
+        router.route().handler(SessionHandler.create(vertxSessionStore));
+        router.get("/protected").handler(new SecurityHandler(vertx, sessionStore, config,
+                new SecurityHandlerOptions().setClients(oidcClient.getName()).setExecutionMode(settings.mode)));
+        router.get("/protected").handler(rc -> rc.end("ok"));
+        router.get("/callback").handler(new CallbackHandler(vertx, sessionStore, config,
+                new CallbackHandlerOptions().setDefaultUrl("/protected").setExecutionMode(settings.mode)));
+        router.get("/logout").handler(new LogoutHandler(vertx, sessionStore,
+                new LogoutHandlerOptions().setDefaultUrl("/bye").setExecutionMode(settings.mode), config));
+        router.get("/bye").handler(rc -> rc.end("bye"));
+        return router;
+    }
+
+    /** One user looping over login, authenticated requests and logout until the deadline. */
+    private final class VirtualUser {
+
+        private final Map<String, String> cookies = new HashMap<>();
+        private final Promise<Void> done = Promise.promise();
+
+        private Future<Void> start(final Vertx vertx) {
+            vertx.runOnContext(v -> next());
+            return done.future();
+        }
+
+        private void next() {
+            if (System.nanoTime() >= deadline) {
+                done.complete();
+                return;
+            }
+            cycle().onComplete(ar -> next());
+        }
+
+        private Future<Void> cycle() {
+            cookies.clear();
+            final long loginStart = System.nanoTime();
+            return get(appBase + "/protected")
+                    .compose(toProvider -> get(redirection(toProvider)))
+                    .compose(toCallback -> get(redirection(toCallback)))
+                    .compose(toOriginalUrl -> get(redirection(toOriginalUrl)))
+                    .compose(LoadHarness::expectOk)
+                    .andThen(ar -> record(login, loginStart, ar.succeeded()))
+                    .compose(v -> requests(settings.requestsPerLogin))
+                    .compose(v -> {
+                        final long logoutStart = System.nanoTime();
+                        return get(appBase + "/logout")
+                                .compose(LoadHarness::expectOkOrRedirect)
+                                .andThen(ar -> record(logout, logoutStart, ar.succeeded()));
+                    });
+        }
+
+        private Future<Void> requests(final int remaining) {
+            if (remaining == 0) {
+                return Future.succeededFuture();
+            }
+            final long start = System.nanoTime();
+            return get(appBase + "/protected")
+                    .compose(LoadHarness::expectOk)
+                    .andThen(ar -> record(request, start, ar.succeeded()))
+                    .compose(v -> requests(remaining - 1));
+        }
+
+        private Future<Response> get(final String url) {
+            final RequestOptions options = new RequestOptions().setMethod(HttpMethod.GET).setAbsoluteURI(url);
+            final String cookie = cookies.get(SESSION_COOKIE);
+            if (cookie != null) {
+                options.putHeader("Cookie", SESSION_COOKIE + "=" + cookie);
+            }
+            return client.request(options)
+                    .compose(req -> req.send())
+                    .compose(resp -> {
+                        keepCookies(resp);
+                        return resp.body().map(body -> new Response(resp.statusCode(), resp.getHeader("Location")));
+                    });
+        }
+
+        private void keepCookies(final HttpClientResponse response) {
+            for (final String setCookie : response.cookies()) {
+                final int eq = setCookie.indexOf('=');
+                final int end = setCookie.indexOf(';');
+                if (eq > 0) {
+                    cookies.put(setCookie.substring(0, eq), setCookie.substring(eq + 1, end > 0 ? end : setCookie.length()));
+                }
+            }
+        }
+
+        private String redirection(final Response response) {
+            if (response.status != 302 || response.location == null) {
+                throw new IllegalStateException("Expected a redirection, got " + response.status);
+            }
+            return response.location.startsWith("/") ? appBase + response.location : response.location;
+        }
+    }
+
+    private void record(final LatencyRecorder recorder, final long start, final boolean succeeded) {
+        if (start < measureStart) {
+            return;
+        }
+        if (succeeded) {
+            recorder.record(System.nanoTime() - start);
+        } else {
+            recorder.error();
+        }
+    }
+
+    private static Future<Void> expectOk(final Response response) {
+        return response.status == 200
+                ? Future.succeededFuture()
+                : Future.failedFuture("Unexpected status " + response.status);
+    }
+
+    private static Future<Void> expectOkOrRedirect(final Response response) {
+        return response.status >= 200 && response.status < 400
+                ? Future.succeededFuture()
+                : Future.failedFuture("Unexpected status " + response.status);
+    }
+
+    private static long allocatedBytes() {
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (final long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(gc -> Math.max(0, gc.getCollectionCount()))
+                .sum();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static <T> T await(final Future<T> future) throws Exception {
+        return future.toCompletionStage().toCompletableFuture().get(10, TimeUnit.MINUTES);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String location;
+
+        private Response(final int status, final String location) {
+            this.status = status;
+            this.location = location;
+        }
+    }
+
+    private static final class Settings {
+        private int users = 50;
+        private int warmupSeconds = 10;
+        private int durationSeconds = 30;
+        private int requestsPerLogin = 10;
+        private long idpLatencyMillis = 0;
+        private ExecutionMode mode = ExecutionMode.WORKER;
+        private int eventLoops = Runtime.getRuntime().availableProcessors();
+        private String out = "load-result.json";
+
+        private static Settings parse(final String[] args) {
+            final Settings settings = new Settings();
+            for (final String arg : args) {
+                final int eq = arg.indexOf('=');
+                if (!arg.startsWith("--") || eq < 0) {
+                    throw new IllegalArgumentException("Expected --name=value, got " + arg);
+                }
+                final String value = arg.substring(eq + 1);
+                switch (arg.substring(2, eq)) {
+                    case "users": settings.users = Integer.parseInt(value); break;
+                    case "warmup": settings.warmupSeconds = Integer.parseInt(value); break;
+                    case "duration": settings.durationSeconds = Integer.parseInt(value); break;
+                    case "requestsPerLogin": settings.requestsPerLogin = Integer.parseInt(value); break;
+                    case "idpLatencyMillis": settings.idpLatencyMillis = Long.parseLong(value); break;
+                    case "mode": settings.mode = ExecutionMode.valueOf(value); break;
+                    case "eventLoops": settings.eventLoops = Integer.parseInt(value); break;
+                    case "out": settings.out = value; break;
+                    default: throw new IllegalArgumentException("Unknown option " + arg);
+                }
+            }
+            return settings;
+        }
+
+        private JsonObject toJson() {
+            return new JsonObject()
+                    .put("users", users)
+                    .put("warmupSeconds", warmupSeconds)
+                    .put("durationSeconds", durationSeconds)
+                    .put("requestsPerLogin", requestsPerLogin)
+                    .put("idpLatencyMillis", idpLatencyMillis)
+                    .put("mode", mode.name())
+                    .put("eventLoops", eventLoops);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.pac4j.vertx.benchmarks.load;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import io.vertx.ext.web.handler.BodyHandler;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal OpenID Connect provider for the load tests and benchmarks: discovery, an authorization endpoint which
+ * authenticates immediately, a token endpoint issuing RS256 signed ID tokens, the matching JWKS and a user info
+ * endpoint accepting any bearer token. Every response can be delayed to stand for a slow identity provider.
+ *
+ * @since 7.0.4
+ */
+public final class MockOidcProvider {
+
+    static final String CLIENT_ID = "load-test";
+    static final String CLIENT_SECRET = "load-test-secret";
+
+    private final Vertx vertx;
+    private final long latencyMillis;
+    private final RSAKey signingKey;
+    private final Map<String, Grant> grants = new ConcurrentHashMap<>();
+    private final AtomicLong users = new AtomicLong();
+
+    private String issuer;
+
+    public MockOidcProvider(final Vertx vertx, final long latencyMillis) throws JOSEException {
+        this.vertx = vertx;
+        this.latencyMillis = latencyMillis;
+        this.signingKey = new RSAKeyGenerator(2048).keyID("load-test").generate();
+    }
+
+    public Future<HttpServer> start() {
+        final Router router = Router.router(vertx);
+        router.get("/.well-known/openid-configuration").handler(rc -> delayed(rc, () -> json(rc, metadata())));
+        router.get("/jwks").handler(rc -> delayed(rc, () -> rc.response()
+                .putHeader("Content-Type", "application/json")
+                .end(new JWKSet(signingKey.toPublicJWK()).toString())));
+        router.get("/authorize").handler(rc -> delayed(rc, () -> authorize(rc)));
+        router.post("/token").handler(BodyHandler.create());
+        router.post("/token").handler(rc -> delayed(rc, () -> token(rc)));
+        router.get("/userinfo").handler(rc -> delayed(rc, () -> userInfo(rc)));
+        return vertx.createHttpServer().requestHandler(router).listen(0, "localhost").onSuccess(server ->
+                issuer = "http://localhost:" + server.actualPort());
+    }
+
+    String discoveryUri() {
+        return issuer + "/.well-known/openid-configuration";
+    }
+
+    public String userInfoUri() {
+        return issuer + "/userinfo";
+    }
+
+    private JsonObject metadata() {
+        return new JsonObject()
+                .put("issuer", issuer)
+                .put("authorization_endpoint", issuer + "/authorize")
+                .put("token_endpoint", issuer + "/token")
+                .put("jwks_uri", issuer + "/jwks")
+                .put("userinfo_endpoint", issuer + "/userinfo")
+                .put("response_types_supported", new JsonArray().add("code"))
+                .put("subject_types_supported", new JsonArray().add("public"))
+                .put("id_token_signing_alg_values_supported", new JsonArray().add("RS256"))
+                .put("token_endpoint_auth_methods_supported", new JsonArray().add("client_secret_basic").add("client_secret_post"))
+                .put("scopes_supported", new JsonArray().add("openid").add("profile").add("email"));
+    }
+
+    private void authorize(final RoutingContext rc) {
+        final String redirectUri = rc.request().getParam("redirect_uri");
+        final String state = rc.request().getParam("state");
+        if (redirectUri == null) {
+            rc.response().setStatusCode(400).end("missing redirect_uri");
+            return;
+        }
+        final String code = UUID.randomUUID().toString();
+        grants.put(code, new Grant("user-" + users.incrementAndGet(), rc.request().getParam("nonce")));
+        final StringBuilder location = new StringBuilder(redirectUri)
+                .append(redirectUri.indexOf('?') >= 0 ? '&' : '?')
+                .append("code=").append(code);
+        if (state != null) {
+            location.append("&state=").append(URLEncoder.encode(state, StandardCharsets.UTF_8));
+        }
+        rc.response().setStatusCode(302).putHeader("Location", location.toString()).end();
+    }
+
+    private void token(final RoutingContext rc) {
+        final Grant grant = grants.remove(String.valueOf(rc.request().getFormAttribute("code")));
+        if (grant == null) {
+            rc.response().setStatusCode(400).putHeader("Content-Type", "application/json")
+                    .end(new JsonObject().put("error", "invalid_grant").encode());
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        final JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .subject(grant.subject)
+                .audience(CLIENT_ID)
+                .issueTime(new Date(now))
+                .expirationTime(new Date(now + 300_000))
+                .claim("email", grant.subject + "@example.com")
+                .claim("name", grant.subject);
+        if (grant.nonce != null) {
+            claims.claim("nonce", grant.nonce);
+        }
+        final SignedJWT idToken = new SignedJWT(
+                new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims.build());
+        try {
+            idToken.sign(new RSASSASigner(signingKey));
+        } catch (JOSEException e) {
+            rc.fail(e);
+            return;
+        }
+        json(rc, new JsonObject()
+                .put("access_token", UUID.randomUUID().toString())
+                .put("token_type", "Bearer")
+                .put("expires_in", 300)
+                .put("id_token", idToken.serialize()));
+    }
+
+    private void userInfo(final RoutingContext rc) {
+        final String authorization = rc.request().getHeader("Authorization");
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            rc.response().setStatusCode(401).end();
+            return;
+        }
+        json(rc, new JsonObject().put("sub", "user-" + users.incrementAndGet()));
+    }
+
+    private void delayed(final RoutingContext rc, final Runnable response) {
+        if (latencyMillis > 0) {
+            vertx.setTimer(latencyMillis, id -> response.run());
+        } else {
+            response.run();
+        }
+    }
+
+    private static void json(final RoutingContext rc, final JsonObject body) {
+        rc.response().putHeader("Content-Type", "application/json;charset=UTF-8").end(body.encode());
+    }
+
+    private static final class Grant {
+        private final String subject;
+        private final String nonce;
+
+        private Grant(final String subject, final String nonce) {
+            this.subject = subject;
+            this.nonce = nonce;
+        }
+    }
+}
@@ -2,7 +2,6 @@ package org.pac4j.vertx;
 
 import org.pac4j.core.profile.ProfileManager;
 import org.pac4j.core.profile.UserProfile;
-import org.pac4j.vertx.auth.Pac4jUser;
 import org.pac4j.vertx.context.session.VertxSessionStore;
 
 import java.util.LinkedHashMap;
@@ -26,8 +25,7 @@ public class VertxProfileManager extends ProfileManager {
         super.saveAll(profiles, saveInSession);
 
         final Collection<UserProfile> values = (profiles != null) ? profiles.values() : java.util.List.of();
-        final Pac4jUser vertxUser = new Pac4jUser(values);
-        vertxWebContext.setVertxUser(vertxUser);
+        vertxWebContext.setVertxUser(values);
     }
 
     @Override
@@ -38,8 +36,7 @@ public class VertxProfileManager extends ProfileManager {
        if (profiles == null || profiles.isEmpty()) {
             vertxWebContext.removeVertxUser();
         } else {
-            final Pac4jUser refreshed = new Pac4jUser(profiles.values());
-            vertxWebContext.setVertxUser(refreshed);
+            vertxWebContext.setVertxUser(profiles.values());
         }
     }
 }
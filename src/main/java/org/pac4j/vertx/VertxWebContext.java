@@ -1,18 +1,19 @@
 package org.pac4j.vertx;
 
+import io.vertx.core.MultiMap;
 import io.vertx.core.http.HttpServerRequest;
-import io.vertx.core.json.JsonArray;
-import io.vertx.core.json.JsonObject;
+import io.vertx.core.net.HostAndPort;
+import io.vertx.core.net.SocketAddress;
+import io.vertx.ext.auth.User;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.Session;
 import io.vertx.ext.web.impl.UserContextInternal;
 import org.pac4j.core.context.Cookie;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.context.session.SessionStore;
+import org.pac4j.core.profile.UserProfile;
 import org.pac4j.vertx.auth.Pac4jUser;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.security.InvalidParameterException;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,73 +27,47 @@ import java.util.stream.Collectors;
 public class VertxWebContext implements WebContext {
 
     private final RoutingContext routingContext;
-    private final String method;
-    private final String serverName;
-    private final int serverPort;
-    private final String fullUrl;
-    private final String scheme;
-    private final String remoteAddress;
-    private final JsonObject headers;
-    private final JsonObject parameters;
-    private final Map<String, String[]> mapParameters;
+    private final HttpServerRequest request;
+
+    // Resolved lazily, most requests only ever look at a header or two
+    private String fullUrl;
+    private String scheme;
+    private String serverName;
+    private int serverPort = -1;
+    private Map<String, String[]> mapParameters;
 
     public VertxWebContext(final RoutingContext routingContext) {
-        final HttpServerRequest request = routingContext.request();
         this.routingContext = routingContext;
-        this.method = request.method().toString();
-
-        this.fullUrl = request.absoluteURI();
-        URI uri;
-        try {
-            uri = new URI(fullUrl);
-        } catch (URISyntaxException e) {
-            e.printStackTrace();
-            throw new InvalidParameterException("Request to invalid URL " + fullUrl + " while constructing VertxWebContext");
-        }
-        this.scheme = uri.getScheme();
-        this.serverName = uri.getHost();
-        this.serverPort = (uri.getPort() != -1) ? uri.getPort() : scheme.equals("http") ? 80 : 443;
-        this.remoteAddress = request.remoteAddress().toString();
-
-        headers = new JsonObject();
-        for (String name : request.headers().names()) {
-            headers.put(name, request.headers().get(name));
-        }
-
-        parameters = new JsonObject();
-        for (String name : request.params().names()) {
-            parameters.put(name, new JsonArray(Arrays.asList(request.params().getAll(name).toArray())));
-        }
-        for (String name : request.formAttributes().names()) {
-            parameters.put(name, new JsonArray(Arrays.asList(request.formAttributes().getAll(name).toArray())));
-        }
-
-        mapParameters = new HashMap<>();
-        for (String name : parameters.fieldNames()) {
-            JsonArray params = parameters.getJsonArray(name);
-            String[] values = new String[params.size()];
-            int i = 0;
-            for (Object o : params) {
-                values[i++] = (String) o;
-            }
-            mapParameters.put(name, values);
-        }
+        this.request = routingContext.request();
     }
 
     @Override
     public Optional<String> getRequestParameter(String name) {
-        JsonArray values = parameters.getJsonArray(name);
-        if (values != null && values.size() > 0) {
-            return Optional.ofNullable(values.getString(0));
+        // form attributes take precedence over query parameters of the same name
+        final String value = request.formAttributes().get(name);
+        if (value != null) {
+            return Optional.of(value);
         }
-        return Optional.empty();
+        return Optional.ofNullable(request.getParam(name));
     }
 
     @Override
     public Map<String, String[]> getRequestParameters() {
+        if (mapParameters == null) {
+            final Map<String, String[]> parameters = new HashMap<>();
+            putAll(parameters, request.params());
+            putAll(parameters, request.formAttributes());
+            mapParameters = parameters;
+        }
         return mapParameters;
     }
 
+    private static void putAll(final Map<String, String[]> parameters, final MultiMap values) {
+        for (String name : values.names()) {
+            parameters.put(name, values.getAll(name).toArray(new String[0]));
+        }
+    }
+
     @Override
     public Optional<Object> getRequestAttribute(String s) {
         return Optional.ofNullable(routingContext.get(s));
@@ -105,17 +80,17 @@ public class VertxWebContext implements WebContext {
 
     @Override
     public Optional<String> getRequestHeader(String name) {
-        return Optional.ofNullable(headers.getString(name));
+        return Optional.ofNullable(request.getHeader(name));
     }
 
     @Override
     public String getRequestMethod() {
-        return method;
+        return request.method().name();
     }
 
     @Override
     public String getRemoteAddr() {
-        return remoteAddress;
+        return request.remoteAddress().toString();
     }
 
     @Override
@@ -141,16 +116,28 @@ public class VertxWebContext implements WebContext {
 
     @Override
     public String getServerName() {
+        if (serverName == null) {
+            resolveAuthority();
+        }
         return serverName;
     }
 
     @Override
     public int getServerPort() {
+        if (serverPort == -1) {
+            resolveAuthority();
+        }
         return serverPort;
     }
 
     @Override
     public String getScheme() {
+        if (scheme == null) {
+            scheme = request.scheme();
+            if (scheme == null) {
+                resolveAuthority();
+            }
+        }
         return scheme;
     }
 
@@ -161,9 +148,36 @@ public class VertxWebContext implements WebContext {
 
     @Override
     public String getFullRequestURL() {
+        if (fullUrl == null) {
+            fullUrl = request.absoluteURI();
+        }
         return fullUrl;
     }
 
+    private void resolveAuthority() {
+        final String requestScheme = request.scheme();
+        final HostAndPort authority = request.authority();
+        if (authority != null && requestScheme != null) {
+            scheme = requestScheme;
+            serverName = authority.host();
+            serverPort = (authority.port() != -1) ? authority.port() : defaultPort(scheme);
+            return;
+        }
+        // no Host header (HTTP/1.0): absoluteURI() is null too, fall back to the address the request was received on
+        final SocketAddress localAddress = request.localAddress();
+        if (requestScheme == null || localAddress == null || localAddress.host() == null) {
+            throw new InvalidParameterException("Request without authority to " + request.uri()
+                    + " while resolving server name");
+        }
+        scheme = requestScheme;
+        serverName = localAddress.host();
+        serverPort = localAddress.port();
+    }
+
+    private static int defaultPort(final String scheme) {
+        return "http".equals(scheme) ? 80 : 443;
+    }
+
     @Override
     public Collection<Cookie> getRequestCookies() {
         return routingContext.request().cookies().stream().map(cookie -> {
@@ -216,6 +230,21 @@ public class VertxWebContext implements WebContext {
         }
     }
 
+    /**
+     * Set the Vert.x user built from the pac4j profiles, unless the current user was already built from these exact
+     * profiles: the profile manager and the security handler would otherwise build it several times per request.
+     *
+     * @param profiles the pac4j profiles
+     * @since 7.0.4
+     */
+    public void setVertxUser(final Collection<UserProfile> profiles) {
+        final User current = routingContext.user();
+        if (current instanceof Pac4jUser && ((Pac4jUser) current).hasSameProfiles(profiles)) {
+            return;
+        }
+        setVertxUser(new Pac4jUser(profiles));
+    }
+
     public Session getVertxSession() {
         return routingContext.session();
     }
@@ -0,0 +1,54 @@
+package org.pac4j.vertx.auth;
+
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.profile.UserProfile;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Authenticator looking up the {@link CredentialsCache} before delegating to the real authenticator of a client.
+ * It replaces the authenticator of the client, so it applies wherever the client is used.
+ *
+ * @since 7.0.4
+ */
+public class CachingAuthenticator implements Authenticator {
+
+    private final String clientName;
+    private final Authenticator delegate;
+    private final CredentialsCache cache;
+
+    public CachingAuthenticator(final String clientName, final Authenticator delegate, final CredentialsCache cache) {
+        this.clientName = clientName;
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.cache = Objects.requireNonNull(cache, "cache");
+    }
+
+    @Override
+    public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+        final String key = cache.key(clientName, credentials);
+        if (key != null) {
+            final Optional<UserProfile> cached = cache.get(key);
+            if (cached.isPresent()) {
+                credentials.setUserProfile(cached.get());
+                return Optional.of(credentials);
+            }
+        }
+
+        final Optional<Credentials> validated = delegate.validate(ctx, credentials);
+        if (key != null && validated.isPresent() && validated.get().getUserProfile() != null) {
+            cache.put(key, validated.get().getUserProfile());
+        }
+        return validated;
+    }
+
+    public Authenticator getDelegate() {
+        return delegate;
+    }
+
+    public CredentialsCache getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,246 @@
+package org.pac4j.vertx.auth;
+
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.credentials.UsernamePasswordCredentials;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.vertx.context.session.BinaryProfileCodec;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of authenticated profiles for direct clients, keyed on an HMAC of the extracted credentials so that
+ * the raw token or password is never kept in memory. The HMAC secret is random and specific to each cache: the keys
+ * cannot be computed, e.g. from a leaked password list, without it.
+ *
+ * <p>An entry expires after the configured time to live, or earlier if the profile carries its own expiration
+ * (the <code>exp</code> claim of a JWT or an OpenID Connect profile). When full, the least recently used entry is
+ * evicted.</p>
+ *
+ * <p>The profiles are kept encoded: each hit gets its own copy, which pac4j can then modify (client name,
+ * authorization generators) without affecting the other requests.</p>
+ *
+ * @since 7.0.4
+ */
+public class CredentialsCache {
+
+    private static final String EXPIRATION_ATTRIBUTE = "exp";
+    private static final String PROFILE_KEY = "profile";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    // the keys of the entries by client name and profile id, guarded by the entries lock
+    private final Map<String, Set<String>> keysByProfile = new HashMap<>();
+    private final ThreadLocal<Mac> macs;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CredentialsCache(final int maxEntries, final long ttl, final TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = unit.toMillis(ttl);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+                if (size() > CredentialsCache.this.maxEntries) {
+                    evictions.increment();
+                    unindex(eldest.getKey(), eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        final byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        final SecretKeySpec key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new TechnicalException(e);
+            }
+        });
+    }
+
+    /**
+     * Compute the cache key of some credentials.
+     *
+     * @param clientName the name of the client which extracted the credentials
+     * @param credentials the extracted credentials
+     * @return the key, or <code>null</code> if this type of credentials cannot be cached
+     */
+    public String key(final String clientName, final Credentials credentials) {
+        final String material;
+        if (credentials instanceof TokenCredentials) {
+            material = ((TokenCredentials) credentials).getToken();
+        } else if (credentials instanceof UsernamePasswordCredentials) {
+            final UsernamePasswordCredentials upc = (UsernamePasswordCredentials) credentials;
+            material = upc.getUsername() + '\0' + upc.getPassword();
+        } else {
+            return null;
+        }
+        if (material == null) {
+            return null;
+        }
+        final Mac mac = macs.get();
+        mac.update(String.valueOf(clientName).getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(material.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(mac.doFinal());
+    }
+
+    /**
+     * @param key the key of the credentials
+     * @return a copy of the cached profile, if any
+     */
+    public Optional<UserProfile> get(final String key) {
+        final long now = System.currentTimeMillis();
+        final Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.expiresAt <= now) {
+                remove(key, entry);
+            }
+        }
+        if (entry != null && entry.expiresAt > now) {
+            final UserProfile profile = decode(entry.encoded);
+            if (!profile.isExpired()) {
+                hits.increment();
+                return Optional.of(profile);
+            }
+            synchronized (entries) {
+                remove(key, entry);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void put(final String key, final UserProfile profile) {
+        final long expiresAt = Math.min(System.currentTimeMillis() + ttlMillis, profileExpiration(profile));
+        final Entry entry = new Entry(encode(profile), profile.getId(), profile.getClientName(), expiresAt);
+        synchronized (entries) {
+            final Entry replaced = entries.put(key, entry);
+            if (replaced != null) {
+                unindex(key, replaced);
+            }
+            keysByProfile.computeIfAbsent(profileKey(entry.clientName, entry.id), k -> new HashSet<>()).add(key);
+        }
+    }
+
+    /** Called holding the entries lock. */
+    private void remove(final String key, final Entry entry) {
+        if (entries.remove(key, entry)) {
+            unindex(key, entry);
+        }
+    }
+
+    /** Called holding the entries lock. */
+    private void unindex(final String key, final Entry entry) {
+        final String profileKey = profileKey(entry.clientName, entry.id);
+        final Set<String> keys = keysByProfile.get(profileKey);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            keysByProfile.remove(profileKey);
+        }
+    }
+
+    private static String profileKey(final String clientName, final String id) {
+        return clientName + '\0' + id;
+    }
+
+    private static byte[] encode(final UserProfile profile) {
+        return (byte[]) BinaryProfileCodec.INSTANCE.encode(Map.of(PROFILE_KEY, profile));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static UserProfile decode(final byte[] encoded) {
+        return ((Map<String, UserProfile>) BinaryProfileCodec.INSTANCE.decode(encoded)).get(PROFILE_KEY);
+    }
+
+    /**
+     * Remove all the entries of a profile, e.g. on logout.
+     *
+     * @param profile the profile to invalidate
+     */
+    public void invalidate(final UserProfile profile) {
+        synchronized (entries) {
+            final Set<String> keys = keysByProfile.remove(profileKey(profile.getClientName(), profile.getId()));
+            if (keys != null) {
+                keys.forEach(entries::remove);
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            keysByProfile.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private static long profileExpiration(final UserProfile profile) {
+        final Object exp = profile.getAttribute(EXPIRATION_ATTRIBUTE);
+        if (exp instanceof Date) {
+            return ((Date) exp).getTime();
+        } else if (exp instanceof Number) {
+            // JWT NumericDate, in seconds
+            return ((Number) exp).longValue() * 1000L;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static final class Entry {
+        private final byte[] encoded;
+        private final String id;
+        private final String clientName;
+        private final long expiresAt;
+
+        private Entry(final byte[] encoded, final String id, final String clientName, final long expiresAt) {
+            this.encoded = encoded;
+            this.id = id;
+            this.clientName = clientName;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package org.pac4j.vertx.auth;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.User;
+import org.pac4j.core.profile.UserProfile;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>Immutable variant of {@link Pac4jUser}, which can be shared across verticles without copies.</p>
+ * <p>Its profiles list cannot be modified, {@link #merge(User)} returns a new user, and the hash code, which only
+ * depends on the profiles, is cached: the profiles must not be modified once in a user. The principal (the number of
+ * profiles and the principal entries of the merged users) is built on the first {@link #principal()} call, and the
+ * roles of all the profiles on the first {@link #roles()} call. Like the principal and the attributes of any Vert.x
+ * user, they can then be modified, e.g. by the multi-factor authentication handlers.</p>
+ *
+ * @since 7.0.4
+ */
+public class ImmutablePac4jUser extends Pac4jUser {
+
+  // all only assigned at construction, or once by readFromBuffer on an empty user
+  private volatile List<UserProfile> profiles;
+  // superseded by the principal once built, which may be modified
+  private volatile JsonObject principalEntries;
+  private volatile JsonObject principal;
+  private volatile JsonObject attributes;
+  private volatile Set<String> roles;
+  private volatile int hash;
+
+  public ImmutablePac4jUser(final Collection<UserProfile> profiles) {
+    this(copy(profiles), null, null);
+  }
+
+  public ImmutablePac4jUser() {
+    this(null);
+  }
+
+  private ImmutablePac4jUser(final List<UserProfile> profiles, final JsonObject principalEntries,
+                             final JsonObject attributes) {
+    super(null, null, null);
+    this.profiles = profiles;
+    this.principalEntries = principalEntries;
+    this.attributes = attributes;
+  }
+
+  private static List<UserProfile> copy(final Collection<UserProfile> profiles) {
+    // no copy of a list which is already immutable
+    return (profiles == null) ? List.of() : List.copyOf(profiles);
+  }
+
+  @Override
+  public JsonObject principal() {
+    JsonObject p = principal;
+    if (p == null) {
+      synchronized (this) {
+        p = principal;
+        if (p == null) {
+          p = new JsonObject().put(PROFILES_COUNT, profiles.size());
+          final JsonObject entries = principalEntries;
+          if (entries != null) {
+            p.mergeIn(entries.copy());
+          }
+          principal = p;
+        }
+      }
+    }
+    return p;
+  }
+
+  @Override
+  public JsonObject attributes() {
+    JsonObject a = attributes;
+    if (a == null) {
+      synchronized (this) {
+        a = attributes;
+        if (a == null) {
+          a = new JsonObject();
+          attributes = a;
+        }
+      }
+    }
+    return a;
+  }
+
+  @Override
+  public List<UserProfile> profiles() {
+    return profiles;
+  }
+
+  @Override
+  public Set<String> roles() {
+    Set<String> r = roles;
+    if (r == null) {
+      final List<UserProfile> current = profiles;
+      if (current.size() == 1) {
+        r = Set.copyOf(current.get(0).getRoles());
+      } else {
+        final Set<String> all = new HashSet<>();
+        for (final UserProfile profile : current) {
+          all.addAll(profile.getRoles());
+        }
+        r = Set.copyOf(all);
+      }
+      roles = r;
+    }
+    return r;
+  }
+
+  @Override
+  public boolean hasRole(final String role) {
+    return role != null && roles().contains(role);
+  }
+
+  /**
+   * Merge with another user, this user is left unchanged.
+   *
+   * @param other the other user
+   * @return a new immutable user with the profiles of both users if the other one is a pac4j user, and the principal
+   * entries and attributes of both users, the other user's ones taking precedence
+   */
+  @Override
+  public User merge(final User other) {
+    if (other == null) {
+      return this;
+    }
+
+    List<UserProfile> mergedProfiles = profiles;
+    final JsonObject otherPrincipal;
+    final JsonObject otherAttributes;
+    if (other instanceof Pac4jUser) {
+      final Pac4jUser otherUser = (Pac4jUser) other;
+      final List<UserProfile> otherProfiles = otherUser.profiles();
+      if (!otherProfiles.isEmpty()) {
+        final List<UserProfile> all = new ArrayList<>(profiles.size() + otherProfiles.size());
+        all.addAll(profiles);
+        all.addAll(otherProfiles);
+        mergedProfiles = List.copyOf(all);
+      }
+      otherPrincipal = otherUser.principalEntries();
+      otherAttributes = otherUser.attributesIfAny();
+    } else {
+      otherPrincipal = other.principal();
+      otherAttributes = other.attributes();
+    }
+
+    return new ImmutablePac4jUser(mergedProfiles, principalEntries(principalEntries(), otherPrincipal),
+        mergeJson(attributes, otherAttributes));
+  }
+
+  /** @return the principal entries, with the changes made to the principal once built */
+  @Override
+  JsonObject principalEntries() {
+    final JsonObject p = principal;
+    return (p != null) ? principalEntries(null, p) : principalEntries;
+  }
+
+  @Override
+  JsonObject attributesIfAny() {
+    return attributes;
+  }
+
+  @Override
+  void populate(final Collection<UserProfile> readProfiles, final JsonObject readPrincipal,
+                final JsonObject readAttributes) {
+    synchronized (this) {
+      profiles = copy(readProfiles);
+      principalEntries = principalEntries(null, readPrincipal);
+      principal = null;
+      roles = null;
+      attributes = (readAttributes == null || readAttributes.isEmpty()) ? null : readAttributes;
+      hash = 0;
+    }
+  }
+
+  // ----- equality -----
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof ImmutablePac4jUser) {
+      final ImmutablePac4jUser other = (ImmutablePac4jUser) o;
+      if (hash != 0 && other.hash != 0 && hash != other.hash) {
+        return false;
+      }
+      return profiles.equals(other.profiles) && Objects.equals(principalEntries(), other.principalEntries());
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      h = profiles.hashCode();
+      if (h == 0) {
+        h = 1;
+      }
+      hash = h;
+    }
+    return h;
+  }
+}
@@ -0,0 +1,44 @@
+package org.pac4j.vertx.auth;
+
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.credentials.Credentials;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Authenticator reporting the validation time of the real authenticator of a client to the {@link Pac4jMetrics}.
+ *
+ * @since 7.0.4
+ */
+public class MeasuredAuthenticator implements Authenticator {
+
+    private final String clientName;
+    private final Authenticator delegate;
+    private final Pac4jMetrics metrics;
+
+    public MeasuredAuthenticator(final String clientName, final Authenticator delegate, final Pac4jMetrics metrics) {
+        this.clientName = clientName;
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+    }
+
+    @Override
+    public Optional<Credentials> validate(final CallContext ctx, final Credentials credentials) {
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            final Optional<Credentials> validated = delegate.validate(ctx, credentials);
+            success = validated.isPresent() && validated.get().getUserProfile() != null;
+            return validated;
+        } finally {
+            metrics.authentication(clientName, System.nanoTime() - start, success);
+        }
+    }
+
+    public Authenticator getDelegate() {
+        return delegate;
+    }
+}
@@ -0,0 +1,80 @@
+package org.pac4j.vertx.auth;
+
+import io.vertx.core.Vertx;
+import org.pac4j.core.client.DirectClient;
+import org.pac4j.core.config.Config;
+import org.pac4j.core.credentials.authenticator.Authenticator;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
+
+/**
+ * Decorates the authenticators of direct clients with a {@link CredentialsCache} and the authentication metrics.
+ *
+ * <p>The authenticator of each client is replaced, so this is done once, when the config is built and before the
+ * handlers use it: the cache and the metrics then apply to the clients wherever they are used. The clients are not
+ * initialized, a client whose authenticator is only set by its initialization must be initialized first.</p>
+ *
+ * @since 7.0.4
+ */
+public final class Pac4jAuthenticators {
+
+    private Pac4jAuthenticators() {
+    }
+
+    /**
+     * Measure, if the metrics are registered, and cache, if a cache is given, the authenticators of direct clients.
+     * The layers already added are kept, so decorating a client twice has no effect.
+     *
+     * @param vertx the vertx API, whose registered metrics are used
+     * @param config the config of the clients
+     * @param clients the comma-separated names of the clients, the other clients of the config are left unchanged
+     * @param cache the credentials cache, null for none
+     */
+    public static void decorate(final Vertx vertx, final Config config, final String clients,
+                                final CredentialsCache cache) {
+        final Pac4jMetrics metrics = Pac4jMetrics.of(vertx);
+        for (final String name : clients.split(Pac4jConstants.ELEMENT_SEPARATOR)) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            config.getClients().findClient(name.trim()).ifPresent(client -> {
+                if (client instanceof DirectClient) {
+                    final DirectClient directClient = (DirectClient) client;
+                    final Authenticator decorated = decorate(directClient, cache, metrics);
+                    if (decorated != directClient.getAuthenticator()) {
+                        directClient.setAuthenticator(decorated);
+                    }
+                }
+            });
+        }
+    }
+
+    /** The measure wraps the real authenticator so that cache hits are not reported as authentications. */
+    private static Authenticator decorate(final DirectClient client, final CredentialsCache cache,
+                                          final Pac4jMetrics metrics) {
+        final Authenticator current = client.getAuthenticator();
+        if (current == null) {
+            return null;
+        }
+        Authenticator inner = current;
+        CredentialsCache currentCache = null;
+        if (inner instanceof CachingAuthenticator) {
+            currentCache = ((CachingAuthenticator) inner).getCache();
+            inner = ((CachingAuthenticator) inner).getDelegate();
+        }
+        if (cache != null && currentCache != null && cache != currentCache) {
+            throw new TechnicalException("The client " + client.getName() + " already has another credentials cache: "
+                    + "a credentials cache applies to a client wherever it is used, use the same one");
+        }
+        final boolean addMeasure = metrics != Pac4jMetrics.NONE && !(inner instanceof MeasuredAuthenticator);
+        if (!addMeasure && (currentCache != null || cache == null)) {
+            return current;
+        }
+        if (addMeasure) {
+            inner = new MeasuredAuthenticator(client.getName(), inner, metrics);
+        }
+        final CredentialsCache effectiveCache = (currentCache != null) ? currentCache : cache;
+        return (effectiveCache != null) ? new CachingAuthenticator(client.getName(), inner, effectiveCache) : inner;
+    }
+}
@@ -0,0 +1,90 @@
+package org.pac4j.vertx.auth;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.auth.User;
+import io.vertx.ext.auth.authorization.Authorization;
+import io.vertx.ext.auth.authorization.AuthorizationContext;
+import io.vertx.ext.auth.authorization.AuthorizationProvider;
+import io.vertx.ext.auth.authorization.RoleBasedAuthorization;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>Vert.x authorization provider granting the pac4j roles of a {@link Pac4jUser}, e.g. for an
+ * <code>AuthorizationHandler</code> checking a {@link RoleBasedAuthorization}.</p>
+ * <p>A single authorization is granted, backed by the roles of the user when the authorizations are loaded: a role
+ * check is a set lookup, whatever the number of roles and profiles. Like any Vert.x authorization, it is not updated
+ * when the profiles of a {@link Pac4jUser} are modified, until the authorizations are loaded again.</p>
+ * <p>The pac4j roles have no resource: like the Vert.x roles granted without resource, the verification of a
+ * {@link RoleBasedAuthorization} ignores its resource, e.g. <code>RoleBasedAuthorization.create("admin")
+ * .setResource("{id}")</code> is granted to any admin, whatever the resource. The pac4j profiles have no permissions:
+ * {@link io.vertx.ext.auth.authorization.PermissionBasedAuthorization} checks are never granted by this
+ * provider.</p>
+ *
+ * @since 7.0.4
+ */
+public class Pac4jAuthorizationProvider implements AuthorizationProvider {
+
+    public static final String ID = "pac4j";
+
+    private static final Pac4jAuthorizationProvider INSTANCE = new Pac4jAuthorizationProvider();
+
+    public static Pac4jAuthorizationProvider getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public Future<Void> getAuthorizations(final User user) {
+        if (user instanceof Pac4jUser) {
+            final Pac4jUser pac4jUser = (Pac4jUser) user;
+            pac4jUser.authorizations().put(ID, Set.of(new RolesAuthorization(Set.copyOf(pac4jUser.roles()))));
+        }
+        return Future.succeededFuture();
+    }
+
+    /** The roles of a user, as one authorization. */
+    private static final class RolesAuthorization implements Authorization {
+
+        private final Set<String> roles;
+
+        private RolesAuthorization(final Set<String> roles) {
+            this.roles = roles;
+        }
+
+        @Override
+        public boolean match(final AuthorizationContext context) {
+            return match(context.user());
+        }
+
+        @Override
+        public boolean match(final User other) {
+            return other instanceof Pac4jUser && ((Pac4jUser) other).roles().containsAll(roles);
+        }
+
+        @Override
+        public boolean verify(final Authorization authorization) {
+            if (authorization instanceof RoleBasedAuthorization) {
+                // the resource is ignored: the pac4j roles have no resource, which grants them on all the resources
+                final String role = ((RoleBasedAuthorization) authorization).getRole();
+                return role != null && roles.contains(role);
+            }
+            if (authorization instanceof RolesAuthorization) {
+                return roles.containsAll(((RolesAuthorization) authorization).roles);
+            }
+            return false;
+        }
+
+        @Override
+        public JsonObject toJson() {
+            return new JsonObject().put("type", ID).put("roles", new JsonArray(List.copyOf(roles)));
+        }
+    }
+}
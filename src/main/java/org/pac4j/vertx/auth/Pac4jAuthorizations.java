@@ -0,0 +1,91 @@
+package org.pac4j.vertx.auth;
+
+import io.vertx.ext.auth.authorization.Authorization;
+import io.vertx.ext.auth.authorization.Authorizations;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * The authorizations of a {@link Pac4jUser}, by provider id. The map is copied on write, so that the reads do not
+ * lock: the providers load the authorizations once, and they are then verified on each request.
+ *
+ * @since 7.0.4
+ */
+class Pac4jAuthorizations implements Authorizations {
+
+    private volatile Map<String, Set<Authorization>> authorizations = Map.of();
+
+    @Override
+    public synchronized Authorizations putAll(final Map<String, Set<Authorization>> all) {
+        Objects.requireNonNull(all, "all");
+        final Map<String, Set<Authorization>> copy = new HashMap<>(authorizations);
+        all.forEach((providerId, set) -> put(copy, providerId, set));
+        authorizations = copy;
+        return this;
+    }
+
+    @Override
+    public synchronized Authorizations put(final String providerId, final Set<Authorization> set) {
+        final Map<String, Set<Authorization>> copy = new HashMap<>(authorizations);
+        put(copy, providerId, set);
+        authorizations = copy;
+        return this;
+    }
+
+    /** A null set removes the authorizations of the provider. */
+    private static void put(final Map<String, Set<Authorization>> map, final String providerId,
+                            final Set<Authorization> set) {
+        Objects.requireNonNull(providerId, "providerId");
+        if (set == null) {
+            map.remove(providerId);
+        } else {
+            map.put(providerId, Collections.unmodifiableSet(set));
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return authorizations.isEmpty();
+    }
+
+    @Override
+    public synchronized Authorizations clear() {
+        authorizations = Map.of();
+        return this;
+    }
+
+    @Override
+    public boolean contains(final String providerId) {
+        return authorizations.containsKey(providerId);
+    }
+
+    @Override
+    public boolean verify(final Authorization resolvedAuthorization) {
+        for (final Set<Authorization> set : authorizations.values()) {
+            for (final Authorization authorization : set) {
+                if (authorization.verify(resolvedAuthorization)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Authorizations forEach(final BiConsumer<String, Authorization> consumer) {
+        authorizations.forEach((providerId, set) -> set.forEach(a -> consumer.accept(providerId, a)));
+        return this;
+    }
+
+    @Override
+    public Authorizations forEach(final String providerId, final Consumer<Authorization> consumer) {
+        authorizations.getOrDefault(providerId, Set.of()).forEach(consumer);
+        return this;
+    }
+}
@@ -1,41 +1,74 @@
 package org.pac4j.vertx.auth;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.ClusterSerializable;
 import io.vertx.ext.auth.User;
-import java.util.ArrayList;
-import lombok.EqualsAndHashCode;
-import lombok.Getter;
+import io.vertx.ext.auth.authorization.Authorizations;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.CommonProfile;
 import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.vertx.context.session.BinaryProfileCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
+ * <p>Vert.x user holding the pac4j profiles.</p>
+ * <p>A user can be modified: its profiles list, principal and attributes are mutable and {@link #merge(User)} merges
+ * the other user into this one. {@link ImmutablePac4jUser} is the variant which can be shared without copies, with a
+ * cached hash code.</p>
+ * <p>Users are equal if they have equal profiles and principals: the attributes are where Vert.x keeps per-user
+ * metadata, e.g. the authorizations, they are serialized but not part of the equality.</p>
+ *
  * @author Jeremy Prime
  * @since 2.0.0
  */
-@Getter
-@EqualsAndHashCode
 public class Pac4jUser implements User, ClusterSerializable {
 
-  private final List<UserProfile> profiles;
-  private final JsonObject principal;
-  private final JsonObject attributes;
+  static final String PROFILES_COUNT = "profilesCount";
+  private static final String PROFILE_KEY = "0";
 
-  public Pac4jUser(final Collection<UserProfile> profiles) {
-    this.profiles = (profiles == null) ? new ArrayList<>() : new ArrayList<>(profiles);
+  private static final int BINARY_FORMAT_MAGIC = 0xB7505500;
+  private static final int BINARY_FORMAT_VERSION = 2;
+  // a single profiles blob
+  private static final int BLOB_FORMAT_VERSION = 1;
+
+  private static final Logger LOG = LoggerFactory.getLogger(Pac4jUser.class);
 
-    this.principal = new JsonObject().put("profilesCount", this.profiles.size());
-    this.attributes = new JsonObject();
+  private List<UserProfile> profiles;
+  private JsonObject principal;
+  private JsonObject attributes;
+  private volatile Authorizations authorizations;
+
+  public Pac4jUser(final Collection<UserProfile> profiles) {
+    this((profiles == null) ? new ArrayList<>() : new ArrayList<>(profiles), new JsonObject(), new JsonObject());
+    this.principal.put(PROFILES_COUNT, this.profiles.size());
   }
 
   public Pac4jUser() {
     this(null);
   }
 
+  /** Constructor of the variants holding their own state, null here. */
+  Pac4jUser(final List<UserProfile> profiles, final JsonObject principal, final JsonObject attributes) {
+    this.profiles = profiles;
+    this.principal = principal;
+    this.attributes = attributes;
+  }
+
   // ----- io.vertx.ext.auth.User -----
 
   @Override
@@ -48,51 +81,373 @@ public class Pac4jUser implements User, ClusterSerializable {
     return attributes;
   }
 
+  /**
+   * The authorizations loaded by the providers are kept with the user, they are not part of the equality nor
+   * serialized: they are loaded again when needed.
+   */
+  @Override
+  public Authorizations authorizations() {
+    Authorizations a = authorizations;
+    if (a == null) {
+      synchronized (this) {
+        a = authorizations;
+        if (a == null) {
+          a = new Pac4jAuthorizations();
+          authorizations = a;
+        }
+      }
+    }
+    return a;
+  }
+
+  /**
+   * @return the roles of all the profiles
+   * @since 7.0.4
+   */
+  public Set<String> roles() {
+    final Set<String> all = new HashSet<>();
+    for (final UserProfile profile : profiles()) {
+      all.addAll(profile.getRoles());
+    }
+    return Collections.unmodifiableSet(all);
+  }
+
+  /**
+   * @param role a role
+   * @return whether one of the profiles has this role
+   * @since 7.0.4
+   */
+  public boolean hasRole(final String role) {
+    if (role == null) {
+      return false;
+    }
+    for (final UserProfile profile : profiles()) {
+      if (profile.getRoles().contains(role)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public List<UserProfile> profiles() {
-      return profiles;
+    return profiles;
+  }
+
+  public List<UserProfile> getProfiles() {
+    return profiles();
+  }
+
+  public JsonObject getPrincipal() {
+    return principal();
   }
 
+  public JsonObject getAttributes() {
+    return attributes();
+  }
+
+  /**
+   * @param others some profiles
+   * @return whether this user holds these exact profile instances, in the same order
+   * @since 7.0.4
+   */
+  public boolean hasSameProfiles(final Collection<? extends UserProfile> others) {
+    final List<UserProfile> current = profiles();
+    if (others == null) {
+      return current.isEmpty();
+    }
+    if (others.size() != current.size()) {
+      return false;
+    }
+    int i = 0;
+    for (final UserProfile other : others) {
+      if (current.get(i++) != other) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Merge another user into this one.
+   *
+   * @param other the other user
+   * @return this user, with the profiles of the other one if it is a pac4j user, and its principal entries and
+   * attributes, which take precedence
+   */
   @Override
-  public User merge(User other) {
+  public User merge(final User other) {
     if (other == null) {
       return this;
     }
 
     if (other instanceof Pac4jUser) {
-      this.profiles.addAll(((Pac4jUser) other).profiles);
-      this.principal.put("profilesCount", this.profiles.size());
+      profiles.addAll(((Pac4jUser) other).profiles());
+      principal.put(PROFILES_COUNT, profiles.size());
     }
+    mergeEntries(principal, other.principal());
+    mergeEntries(attributes, other.attributes());
+    return this;
+  }
 
-    JsonObject otherPrinc = other.principal();
-    if (otherPrinc != null) {
-      for (String k : otherPrinc.fieldNames()) {
-        this.principal.put(k, otherPrinc.getValue(k));
+  private static void mergeEntries(final JsonObject target, final JsonObject entries) {
+    if (entries != null) {
+      for (final String key : entries.fieldNames()) {
+        if (!PROFILES_COUNT.equals(key)) {
+          target.put(key, entries.getValue(key));
+        }
       }
     }
+  }
 
-    JsonObject otherAttr = other.attributes();
-    if (otherAttr != null) {
-      for (String k : otherAttr.fieldNames()) {
-        this.attributes.put(k, otherAttr.getValue(k));
-      }
+  /** @return the entries of the principal other than the profiles count, null if none */
+  JsonObject principalEntries() {
+    return principalEntries(null, principal());
+  }
+
+  /** @return the attributes, null if none was set */
+  JsonObject attributesIfAny() {
+    return attributes();
+  }
+
+  static JsonObject principalEntries(final JsonObject entries, final JsonObject other) {
+    final JsonObject merged = mergeJson(entries, other);
+    if (merged != null) {
+      merged.remove(PROFILES_COUNT);
     }
-    return this;
+    return (merged == null || merged.isEmpty()) ? null : merged;
+  }
+
+  static JsonObject mergeJson(final JsonObject first, final JsonObject second) {
+    if ((first == null || first.isEmpty()) && (second == null || second.isEmpty())) {
+      return null;
+    }
+    final JsonObject merged = (first != null) ? first.copy() : new JsonObject();
+    if (second != null) {
+      merged.mergeIn(second.copy());
+    }
+    return merged;
+  }
+
+  // ----- equality -----
+
+  /**
+   * Users are equal if they have equal profiles and principals, whatever their attributes. The hash code only depends
+   * on the profiles, so that it does not change with the principal.
+   */
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Pac4jUser)) {
+      return false;
+    }
+    final Pac4jUser other = (Pac4jUser) o;
+    return profiles().equals(other.profiles()) && Objects.equals(principalEntries(), other.principalEntries());
   }
 
+  @Override
+  public int hashCode() {
+    // never 0, like the cached hash code of the immutable users
+    final int h = profiles().hashCode();
+    return (h != 0) ? h : 1;
+  }
+
+  // ----- io.vertx.core.shareddata.ClusterSerializable -----
+
+  /**
+   * Binary format: a header (magic and version, a negative int unlike the length of the former JSON format), the
+   * length of the rest, the number of profiles and each profile in the {@link BinaryProfileCodec} format prefixed by
+   * its length, then the principal entries and the attributes as JSON prefixed by their length, 0 when empty. A profile
+   * which cannot be read, e.g. its class is no longer available, is skipped.
+   */
   @Override
   public void writeToBuffer(final Buffer buffer) {
-    final Buffer buf = Json.CODEC.toBuffer(this, false);
-    buffer.appendInt(buf.length());
-    buffer.appendBuffer(buf);
+    writeToBuffer(buffer, BinaryProfileCodec.INSTANCE);
+  }
+
+  /**
+   * @param buffer the buffer to write to
+   * @param profileCodec the codec of the profiles
+   * @since 7.0.4
+   */
+  public void writeToBuffer(final Buffer buffer, final BinaryProfileCodec profileCodec) {
+    buffer.appendInt(BINARY_FORMAT_MAGIC | BINARY_FORMAT_VERSION);
+    final int lengthPos = buffer.length();
+    buffer.appendInt(0);
+
+    // each profile with its own length, so that one which cannot be read does not prevent reading the others
+    final List<UserProfile> current = profiles();
+    buffer.appendInt(current.size());
+    for (final UserProfile profile : current) {
+      final byte[] encoded = (byte[]) profileCodec.encode(Map.of(PROFILE_KEY, profile));
+      buffer.appendInt(encoded.length).appendBytes(encoded);
+    }
+    writeJson(buffer, principalEntries());
+    writeJson(buffer, attributesIfAny());
+
+    buffer.setInt(lengthPos, buffer.length() - lengthPos - 4);
   }
 
   @Override
   public int readFromBuffer(final int pos, final Buffer buffer) {
+    return readFromBuffer(pos, buffer, BinaryProfileCodec.INSTANCE);
+  }
+
+  /**
+   * Read a user written in the binary format, or in the former JSON format, into this empty user.
+   *
+   * @param pos the position to read from
+   * @param buffer the buffer to read from
+   * @param profileCodec the codec of the profiles
+   * @return the position after the user
+   * @since 7.0.4
+   */
+  @SuppressWarnings("unchecked")
+  public int readFromBuffer(final int pos, final Buffer buffer, final BinaryProfileCodec profileCodec) {
+    if (!profiles().isEmpty() || principalEntries() != null) {
+      throw new IllegalStateException("A user can only be read into an empty user");
+    }
+    final int header = buffer.getInt(pos);
+    if (header >= 0) {
+      return readLegacy(pos, buffer, profileCodec);
+    }
+    final int version = header & 0xFF;
+    if ((header & ~0xFF) != BINARY_FORMAT_MAGIC
+        || (version != BINARY_FORMAT_VERSION && version != BLOB_FORMAT_VERSION)) {
+      throw new TechnicalException("Unsupported Pac4jUser format: " + Integer.toHexString(header));
+    }
+    final int end = pos + 8 + buffer.getInt(pos + 4);
+    int cursor = pos + 8;
+
+    final Collection<UserProfile> decoded;
+    if (version == BLOB_FORMAT_VERSION) {
+      final int length = buffer.getInt(cursor);
+      cursor += 4;
+      decoded = ((Map<String, UserProfile>) profileCodec.decode(buffer.slice(cursor, cursor + length))).values();
+      cursor += length;
+    } else {
+      final int count = buffer.getInt(cursor);
+      cursor += 4;
+      decoded = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        final int length = buffer.getInt(cursor);
+        cursor += 4;
+        final UserProfile profile = readProfile(buffer.slice(cursor, cursor + length), profileCodec);
+        if (profile != null) {
+          decoded.add(profile);
+        }
+        cursor += length;
+      }
+    }
+
+    final JsonObject readPrincipal = new JsonObject();
+    cursor = readJson(buffer, cursor, readPrincipal);
+    final JsonObject readAttributes = new JsonObject();
+    readJson(buffer, cursor, readAttributes);
+    populate(decoded, readPrincipal, readAttributes);
+    return end;
+  }
+
+  /** @return the profile, null if it cannot be read, e.g. its class is no longer available */
+  @SuppressWarnings("unchecked")
+  private static UserProfile readProfile(final Buffer encoded, final BinaryProfileCodec profileCodec) {
+    try {
+      final Map<String, UserProfile> decoded = (Map<String, UserProfile>) profileCodec.decode(encoded);
+      if (decoded != null && decoded.get(PROFILE_KEY) != null) {
+        return decoded.get(PROFILE_KEY);
+      }
+      LOG.warn("Skipping a user profile in an unknown format");
+    } catch (RuntimeException e) {
+      LOG.warn("Skipping a user profile which cannot be read", e);
+    }
+    return null;
+  }
+
+  private int readLegacy(final int pos, final Buffer buffer, final BinaryProfileCodec profileCodec) {
     final int length = buffer.getInt(pos);
     final int start = pos + 4;
-    final Buffer buf = buffer.getBuffer(start, start + length);
-    merge(Json.CODEC.fromBuffer(buf, Pac4jUser.class));
+    final LegacyUser legacy = Json.CODEC.fromBuffer(buffer.getBuffer(start, start + length), LegacyUser.class);
+    final List<UserProfile> legacyProfiles = new ArrayList<>();
+    if (legacy.profiles != null) {
+      for (final JsonObject profile : legacy.profiles) {
+        legacyProfiles.add(legacyProfile(profile, profileCodec));
+      }
+    }
+    populate(legacyProfiles, legacy.principal, legacy.attributes);
     return pos + length + 4;
   }
 
+  /**
+   * The JSON form of a profile has no type information, its type is taken from its typed id if it is one of the
+   * profile types registered in the codec, CommonProfile otherwise: no other class is loaded.
+   */
+  private static UserProfile legacyProfile(final JsonObject json, final BinaryProfileCodec profileCodec) {
+    final UserProfile profile = newProfile(json.getString("typedId"), profileCodec);
+    profile.setId(json.getString("id"));
+    profile.setClientName(json.getString("clientName"));
+    profile.setLinkedId(json.getString("linkedId"));
+    profile.setRemembered(json.getBoolean("remembered", false));
+    final JsonArray roles = json.getJsonArray("roles");
+    if (roles != null) {
+      for (final Object role : roles) {
+        profile.addRole((String) role);
+      }
+    }
+    final JsonObject attributes = json.getJsonObject("attributes");
+    if (attributes != null) {
+      profile.addAttributes(attributes.getMap());
+    }
+    final JsonObject authenticationAttributes = json.getJsonObject("authenticationAttributes");
+    if (authenticationAttributes != null) {
+      profile.addAuthenticationAttributes(authenticationAttributes.getMap());
+    }
+    return profile;
+  }
+
+  private static UserProfile newProfile(final String typedId, final BinaryProfileCodec profileCodec) {
+    final int separator = (typedId != null) ? typedId.indexOf(Pac4jConstants.TYPED_ID_SEPARATOR) : -1;
+    if (separator > 0) {
+      final UserProfile profile = profileCodec.newProfile(typedId.substring(0, separator));
+      if (profile != null) {
+        return profile;
+      }
+    }
+    return new CommonProfile();
+  }
+
+  /** Set the state of this empty user, read from a buffer. */
+  void populate(final Collection<UserProfile> readProfiles, final JsonObject readPrincipal,
+                final JsonObject readAttributes) {
+    profiles = new ArrayList<>(readProfiles);
+    principal = new JsonObject().put(PROFILES_COUNT, profiles.size());
+    mergeEntries(principal, readPrincipal);
+    attributes = (readAttributes != null) ? readAttributes : new JsonObject();
+    authorizations = null;
+  }
+
+  private static void writeJson(final Buffer buffer, final JsonObject json) {
+    if (json == null || json.isEmpty()) {
+      buffer.appendInt(0);
+    } else {
+      final Buffer encoded = json.toBuffer();
+      buffer.appendInt(encoded.length()).appendBuffer(encoded);
+    }
+  }
+
+  private static int readJson(final Buffer buffer, final int pos, final JsonObject target) {
+    final int length = buffer.getInt(pos);
+    if (length > 0) {
+      target.mergeIn(new JsonObject(buffer.slice(pos + 4, pos + 4 + length)));
+    }
+    return pos + 4 + length;
+  }
+
+  /** The former JSON form of a user. */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  private static final class LegacyUser {
+    public List<JsonObject> profiles;
+    public JsonObject principal;
+    public JsonObject attributes;
+  }
 }
@@ -0,0 +1,411 @@
+package org.pac4j.vertx.context.session;
+
+import io.vertx.core.buffer.Buffer;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.profile.BasicUserProfile;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.serializer.JavaSerializer;
+import org.pac4j.oidc.profile.OidcProfile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * <p>Compact binary codec for the user profiles. The {@link VertxSessionStore} uses it once given, the nodes which do
+ * not know this format cannot read the sessions it writes.</p>
+ * <p>The format is:</p>
+ * <ul>
+ * <li>a magic byte and a format version</li>
+ * <li>a dictionary of all the attribute names, which are then referred to by index</li>
+ * <li>for each profile: its key, a tag of its type instead of its class name, its identifiers, roles and attributes</li>
+ * </ul>
+ * <p>Attribute values of common types (strings, numbers, booleans, dates, lists and maps of those) are written
+ * natively, other values and unregistered profile types fall back to Java serialization. The lists are decoded as
+ * <code>ArrayList</code> and the maps with string keys as <code>LinkedHashMap</code>, whatever their original type:
+ * an attribute which must keep its collection type has to be Java serialized, e.g. in a custom type. Decoded
+ * attribute names are interned. Values written by the {@link JavaProfileCodec} are still read.</p>
+ *
+ * @since 7.0.4
+ */
+public class BinaryProfileCodec implements ProfileCodec {
+
+    public static final BinaryProfileCodec INSTANCE = new BinaryProfileCodec();
+
+    private static final Logger LOG = LoggerFactory.getLogger(BinaryProfileCodec.class);
+
+    private static final byte MAGIC = (byte) 0xB7;
+    private static final byte VERSION = 1;
+
+    private static final byte SERIALIZED_PROFILE = 0;
+
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_STRING = 1;
+    private static final byte VALUE_TRUE = 2;
+    private static final byte VALUE_FALSE = 3;
+    private static final byte VALUE_INT = 4;
+    private static final byte VALUE_LONG = 5;
+    private static final byte VALUE_DOUBLE = 6;
+    private static final byte VALUE_DATE = 7;
+    private static final byte VALUE_LIST = 8;
+    private static final byte VALUE_MAP = 9;
+    private static final byte VALUE_SERIALIZED = 10;
+
+    private static final JavaSerializer JAVA_SERIALIZER = new JavaSerializer();
+
+    /** Bound of the interned attribute names, attribute names are expected to come from a small set. */
+    private static final int MAX_INTERNED_NAMES = 4096;
+    private static final Map<String, String> INTERNED_NAMES = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Byte> tags = new ConcurrentHashMap<>();
+    private final Map<Byte, Supplier<? extends UserProfile>> factories = new ConcurrentHashMap<>();
+
+    public BinaryProfileCodec() {
+        registerProfileType((byte) 1, CommonProfile.class, CommonProfile::new);
+        registerProfileType((byte) 2, BasicUserProfile.class, BasicUserProfile::new);
+        registerProfileType((byte) 3, OidcProfile.class, OidcProfile::new);
+    }
+
+    /**
+     * Register a profile type so that it is written with a tag instead of being Java serialized. Tags are part of the
+     * format: a tag must keep designating the same type for as long as sessions using it exist.
+     *
+     * @param tag the tag, strictly positive
+     * @param type the exact profile class
+     * @param factory creates an empty profile of this type
+     * @param <P> the profile type
+     * @return this codec
+     */
+    public <P extends UserProfile> BinaryProfileCodec registerProfileType(final byte tag, final Class<P> type,
+                                                                          final Supplier<P> factory) {
+        if (tag <= SERIALIZED_PROFILE) {
+            throw new IllegalArgumentException("Profile type tags must be strictly positive");
+        }
+        tags.put(type, tag);
+        factories.put(tag, factory);
+        return this;
+    }
+
+    /**
+     * @param className the name of a profile class
+     * @return a new empty profile if this class is a registered profile type, null otherwise
+     */
+    public UserProfile newProfile(final String className) {
+        for (final Map.Entry<Class<?>, Byte> entry : tags.entrySet()) {
+            if (entry.getKey().getName().equals(className)) {
+                return factories.get(entry.getValue()).get();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Object encode(final Object profiles) {
+        if (!(profiles instanceof Map)) {
+            throw new TechnicalException("Unsupported user profiles: " + profiles.getClass().getName());
+        }
+        final Map<?, ?> map = (Map<?, ?>) profiles;
+
+        final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (final Object profile : map.values()) {
+            final UserProfile p = (UserProfile) profile;
+            if (tags.containsKey(p.getClass())) {
+                p.getAttributes().keySet().forEach(k -> dictionary.putIfAbsent(k, dictionary.size()));
+                p.getAuthenticationAttributes().keySet().forEach(k -> dictionary.putIfAbsent(k, dictionary.size()));
+            }
+        }
+
+        final Buffer buffer = Buffer.buffer(256);
+        buffer.appendByte(MAGIC).appendByte(VERSION);
+        writeVarInt(buffer, dictionary.size());
+        dictionary.keySet().forEach(name -> writeString(buffer, name));
+
+        writeVarInt(buffer, map.size());
+        for (final Map.Entry<?, ?> entry : map.entrySet()) {
+            writeString(buffer, (String) entry.getKey());
+            writeProfile(buffer, (UserProfile) entry.getValue(), dictionary);
+        }
+        return buffer.getBytes();
+    }
+
+    @Override
+    public Object decode(final Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof String) {
+            // legacy format
+            return JavaProfileCodec.INSTANCE.decode(value);
+        }
+        final Buffer buffer;
+        if (value instanceof byte[]) {
+            buffer = Buffer.buffer((byte[]) value);
+        } else if (value instanceof Buffer) {
+            buffer = (Buffer) value;
+        } else {
+            LOG.warn("Cannot decode the user profiles, unsupported value type: {}", value.getClass().getName());
+            return null;
+        }
+        if (buffer.length() < 2 || buffer.getByte(0) != MAGIC) {
+            LOG.warn("Cannot decode the user profiles, unknown format of {} bytes", buffer.length());
+            return null;
+        }
+        if (buffer.getByte(1) != VERSION) {
+            throw new TechnicalException("Unsupported user profiles format version: " + buffer.getByte(1));
+        }
+
+        final Reader reader = new Reader(buffer, 2);
+        final String[] dictionary = new String[reader.readVarInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = intern(reader.readString());
+        }
+
+        final int count = reader.readVarInt();
+        final LinkedHashMap<String, UserProfile> profiles = new LinkedHashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            final String key = reader.readString();
+            profiles.put(key, readProfile(reader, dictionary));
+        }
+        return profiles;
+    }
+
+    /** Share the attribute names between all the decoded profiles instead of keeping a copy per session. */
+    private static String intern(final String name) {
+        final String interned = INTERNED_NAMES.get(name);
+        if (interned != null) {
+            return interned;
+        }
+        if (INTERNED_NAMES.size() < MAX_INTERNED_NAMES) {
+            final String previous = INTERNED_NAMES.putIfAbsent(name, name);
+            return (previous != null) ? previous : name;
+        }
+        return name;
+    }
+
+    private void writeProfile(final Buffer buffer, final UserProfile profile, final Map<String, Integer> dictionary) {
+        final Byte tag = tags.get(profile.getClass());
+        if (tag == null) {
+            buffer.appendByte(SERIALIZED_PROFILE);
+            writeBytes(buffer, JAVA_SERIALIZER.serializeToBytes(profile));
+            return;
+        }
+        buffer.appendByte(tag);
+        writeString(buffer, profile.getId());
+        writeString(buffer, profile.getClientName());
+        writeString(buffer, profile.getLinkedId());
+        buffer.appendByte(profile.isRemembered() ? VALUE_TRUE : VALUE_FALSE);
+        final Set<String> roles = profile.getRoles();
+        writeVarInt(buffer, roles.size());
+        roles.forEach(role -> writeString(buffer, role));
+        writeAttributes(buffer, profile.getAttributes(), dictionary);
+        writeAttributes(buffer, profile.getAuthenticationAttributes(), dictionary);
+    }
+
+    private UserProfile readProfile(final Reader reader, final String[] dictionary) {
+        final byte tag = reader.readByte();
+        if (tag == SERIALIZED_PROFILE) {
+            return (UserProfile) JAVA_SERIALIZER.deserializeFromBytes(reader.readBytes());
+        }
+        final Supplier<? extends UserProfile> factory = factories.get(tag);
+        if (factory == null) {
+            throw new TechnicalException("Unknown profile type tag: " + tag);
+        }
+        final UserProfile profile = factory.get();
+        profile.setId(reader.readString());
+        profile.setClientName(reader.readString());
+        profile.setLinkedId(reader.readString());
+        profile.setRemembered(reader.readByte() == VALUE_TRUE);
+        final int roles = reader.readVarInt();
+        for (int i = 0; i < roles; i++) {
+            profile.addRole(reader.readString());
+        }
+        final int attributes = reader.readVarInt();
+        for (int i = 0; i < attributes; i++) {
+            profile.addAttribute(dictionary[reader.readVarInt()], readValue(reader));
+        }
+        final int authenticationAttributes = reader.readVarInt();
+        for (int i = 0; i < authenticationAttributes; i++) {
+            profile.addAuthenticationAttribute(dictionary[reader.readVarInt()], readValue(reader));
+        }
+        return profile;
+    }
+
+    private static void writeAttributes(final Buffer buffer, final Map<String, Object> attributes,
+                                        final Map<String, Integer> dictionary) {
+        writeVarInt(buffer, attributes.size());
+        for (final Map.Entry<String, Object> attribute : attributes.entrySet()) {
+            writeVarInt(buffer, dictionary.get(attribute.getKey()));
+            writeValue(buffer, attribute.getValue());
+        }
+    }
+
+    private static void writeValue(final Buffer buffer, final Object value) {
+        if (value == null) {
+            buffer.appendByte(VALUE_NULL);
+        } else if (value instanceof String) {
+            buffer.appendByte(VALUE_STRING);
+            writeString(buffer, (String) value);
+        } else if (value instanceof Boolean) {
+            buffer.appendByte((Boolean) value ? VALUE_TRUE : VALUE_FALSE);
+        } else if (value instanceof Integer) {
+            buffer.appendByte(VALUE_INT).appendInt((Integer) value);
+        } else if (value instanceof Long) {
+            buffer.appendByte(VALUE_LONG).appendLong((Long) value);
+        } else if (value instanceof Double) {
+            buffer.appendByte(VALUE_DOUBLE).appendDouble((Double) value);
+        } else if (value.getClass() == Date.class) {
+            buffer.appendByte(VALUE_DATE).appendLong(((Date) value).getTime());
+        } else if (value instanceof List) {
+            final List<?> list = (List<?>) value;
+            buffer.appendByte(VALUE_LIST);
+            writeVarInt(buffer, list.size());
+            list.forEach(element -> writeValue(buffer, element));
+        } else if (value instanceof Map && ((Map<?, ?>) value).keySet().stream().allMatch(String.class::isInstance)) {
+            final Map<?, ?> map = (Map<?, ?>) value;
+            buffer.appendByte(VALUE_MAP);
+            writeVarInt(buffer, map.size());
+            map.forEach((k, v) -> {
+                writeString(buffer, (String) k);
+                writeValue(buffer, v);
+            });
+        } else {
+            buffer.appendByte(VALUE_SERIALIZED);
+            writeBytes(buffer, JAVA_SERIALIZER.serializeToBytes(value));
+        }
+    }
+
+    private static Object readValue(final Reader reader) {
+        final byte type = reader.readByte();
+        switch (type) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_STRING:
+                return reader.readString();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_INT:
+                return reader.readInt();
+            case VALUE_LONG:
+                return reader.readLong();
+            case VALUE_DOUBLE:
+                return reader.readDouble();
+            case VALUE_DATE:
+                return new Date(reader.readLong());
+            case VALUE_LIST: {
+                final int size = reader.readVarInt();
+                final List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(reader));
+                }
+                return list;
+            }
+            case VALUE_MAP: {
+                final int size = reader.readVarInt();
+                final Map<String, Object> map = new LinkedHashMap<>(size * 2);
+                for (int i = 0; i < size; i++) {
+                    map.put(reader.readString(), readValue(reader));
+                }
+                return map;
+            }
+            case VALUE_SERIALIZED:
+                return JAVA_SERIALIZER.deserializeFromBytes(reader.readBytes());
+            default:
+                throw new TechnicalException("Unknown attribute value type: " + type);
+        }
+    }
+
+    private static void writeVarInt(final Buffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.appendByte((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.appendByte((byte) value);
+    }
+
+    /** Nullable string: its length + 1 (0 for null) then its UTF-8 bytes. */
+    private static void writeString(final Buffer buffer, final String value) {
+        if (value == null) {
+            writeVarInt(buffer, 0);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(buffer, bytes.length + 1);
+            buffer.appendBytes(bytes);
+        }
+    }
+
+    private static void writeBytes(final Buffer buffer, final byte[] bytes) {
+        writeVarInt(buffer, bytes.length);
+        buffer.appendBytes(bytes);
+    }
+
+    private static final class Reader {
+        private final Buffer buffer;
+        private int pos;
+
+        private Reader(final Buffer buffer, final int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        private byte readByte() {
+            return buffer.getByte(pos++);
+        }
+
+        private int readInt() {
+            final int value = buffer.getInt(pos);
+            pos += 4;
+            return value;
+        }
+
+        private long readLong() {
+            final long value = buffer.getLong(pos);
+            pos += 8;
+            return value;
+        }
+
+        private double readDouble() {
+            final double value = buffer.getDouble(pos);
+            pos += 8;
+            return value;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private String readString() {
+            final int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            final String value = buffer.getString(pos, pos + length, StandardCharsets.UTF_8.name());
+            pos += length;
+            return value;
+        }
+
+        private byte[] readBytes() {
+            final int length = readVarInt();
+            final byte[] bytes = buffer.getBytes(pos, pos + length);
+            pos += length;
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package org.pac4j.vertx.context.session;
+
+import org.pac4j.core.util.serializer.JavaSerializer;
+
+import java.util.Base64;
+
+/**
+ * Historical codec: Java serialization encoded to a Base64 string, the default one of the {@link VertxSessionStore} as
+ * older nodes only read this format. Values written by the {@link BinaryProfileCodec} are read too, so that the nodes
+ * can switch to it one by one once they all run a version which reads it.
+ *
+ * @since 7.0.4
+ */
+public class JavaProfileCodec implements ProfileCodec {
+
+    public static final JavaProfileCodec INSTANCE = new JavaProfileCodec();
+
+    private static final JavaSerializer JAVA_SERIALIZER = new JavaSerializer();
+
+    @Override
+    public Object encode(final Object profiles) {
+        return Base64.getEncoder().encodeToString(JAVA_SERIALIZER.serializeToBytes(profiles));
+    }
+
+    @Override
+    public Object decode(final Object value) {
+        if (value instanceof String) {
+            return JAVA_SERIALIZER.deserializeFromBytes(Base64.getDecoder().decode((String) value));
+        }
+        return BinaryProfileCodec.INSTANCE.decode(value);
+    }
+}
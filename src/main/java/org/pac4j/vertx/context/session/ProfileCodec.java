@@ -0,0 +1,75 @@
+package org.pac4j.vertx.context.session;
+
+import io.vertx.core.Future;
+
+/**
+ * Encodes the pac4j user profiles (the {@link org.pac4j.core.util.Pac4jConstants#USER_PROFILES} entry) to a value
+ * which can be kept in a Vert.x session, and back.
+ *
+ * @since 7.0.4
+ */
+public interface ProfileCodec {
+
+    /**
+     * Encode the profiles for the session. The encoding must have no side effect: what the codec keeps outside of the
+     * session is persisted by {@link #write(String, Object)}.
+     *
+     * @param profiles the profiles as handed over by pac4j
+     * @return a value supported by the Vert.x session stores (String, byte[], Buffer...)
+     */
+    Object encode(Object profiles);
+
+    /**
+     * Decode a value read from the session.
+     *
+     * @param value the value read from the session
+     * @return the profiles, or <code>null</code> if the value is not in a supported format
+     */
+    Object decode(Object value);
+
+    /**
+     * Encode the profiles of a given session. Codecs keeping the profiles outside of the session key them by session,
+     * so that they can be discarded with it.
+     *
+     * @param sessionId the id of the session
+     * @param profiles the profiles as handed over by pac4j
+     * @return a value supported by the Vert.x session stores (String, byte[], Buffer...)
+     */
+    default Object encode(final String sessionId, final Object profiles) {
+        return encode(profiles);
+    }
+
+    /**
+     * Encode the profiles of a session for a write to it, persisting first what the codec keeps outside of the session.
+     * Only called when the profiles of the session changed: the value is written to the session once the future
+     * succeeded.
+     *
+     * @param sessionId the id of the session
+     * @param profiles the profiles as handed over by pac4j
+     * @return the value to write to the session
+     */
+    default Future<Object> write(final String sessionId, final Object profiles) {
+        return Future.succeededFuture(encode(sessionId, profiles));
+    }
+
+    /**
+     * Make a value read from the session decodable without blocking, e.g. by fetching the profiles it refers to. Called
+     * on the event loop before the pac4j logic.
+     *
+     * @param value the value read from the session
+     * @return the completion
+     */
+    default Future<Void> prefetch(final Object value) {
+        return Future.succeededFuture();
+    }
+
+    /**
+     * Release what the codec keeps outside of the session for a value which is removed from it.
+     *
+     * @param value the value removed from the session
+     * @return the completion
+     */
+    default Future<Void> discard(final Object value) {
+        return Future.succeededFuture();
+    }
+}
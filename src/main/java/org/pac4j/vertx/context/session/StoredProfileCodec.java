@@ -0,0 +1,259 @@
+package org.pac4j.vertx.context.session;
+
+import io.vertx.core.Future;
+import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.vertx.core.store.AsyncStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Codec keeping the user profiles out of the session: they are encoded with a {@link BinaryProfileCodec} into a
+ * pac4j {@link Store}, and the session only holds a short reference to them.</p>
+ * <p>The entries are keyed by session id and by a digest of the encoded profiles, which acts as their version: a node
+ * never reads outdated profiles. The entry of the previous version is removed when the profiles of the session change
+ * or are removed, e.g. on logout, and when the session is destroyed. The entries expire after a time to live, which
+ * must be at least the session timeout and is extended as the profiles are read: each entry holds the time it was
+ * written, so that all the nodes extend it once half of it has elapsed.</p>
+ * <p>The profiles are only written to the store when they are written to the session, the encoding itself has no side
+ * effect. The encoded profiles are cached on each node, so only the first read of a reference on a node hits the
+ * store.
+ * The handlers {@link #prefetch prefetch} it before the pac4j logic: the decoding never reads the store, so that the
+ * event loop never blocks on it, and the profiles which were not prefetched are read as missing. Profiles kept in the
+ * session by another codec are still read.</p>
+ *
+ * @since 7.0.4
+ */
+public class StoredProfileCodec implements ProfileCodec {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StoredProfileCodec.class);
+
+    public static final int DEFAULT_CACHE_MAX_ENTRIES = 10_000;
+
+    private static final byte MAGIC = (byte) 0xB8;
+    /** References to profiles shared by all the sessions, keyed by digest only. */
+    private static final byte SHARED_VERSION = 1;
+    private static final byte VERSION = 2;
+    private static final int DIGEST_LENGTH = 16;
+    /** The stored entries start with the time they were written. */
+    private static final int WRITTEN_AT_LENGTH = 8;
+
+    private final AsyncStore<String, byte[]> asyncStore;
+    private final BinaryProfileCodec profileCodec;
+    private final long ttlMillis;
+    private final Map<String, CachedProfiles> cache;
+
+    /**
+     * @param store the store of the encoded profiles
+     * @param ttl the time to live of the stored profiles, at least the session timeout
+     * @param unit the unit of the time to live
+     */
+    public StoredProfileCodec(final AsyncStore<String, byte[]> store, final long ttl, final TimeUnit unit) {
+        this(store, ttl, unit, BinaryProfileCodec.INSTANCE, DEFAULT_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * @param store the store of the encoded profiles
+     * @param ttl the time to live of the stored profiles, at least the session timeout
+     * @param unit the unit of the time to live
+     * @param profileCodec the codec of the profiles
+     * @param cacheMaxEntries the maximum number of encoded profiles cached on this node, at least the number of
+     *                        requests in flight
+     */
+    public StoredProfileCodec(final AsyncStore<String, byte[]> store, final long ttl, final TimeUnit unit,
+                              final BinaryProfileCodec profileCodec, final int cacheMaxEntries) {
+        this.asyncStore = Objects.requireNonNull(store, "store");
+        this.profileCodec = Objects.requireNonNull(profileCodec, "profileCodec");
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("ttl must be positive: the stored profiles would never be removed");
+        }
+        if (cacheMaxEntries <= 0) {
+            throw new IllegalArgumentException("cacheMaxEntries must be positive: the prefetched profiles are cached");
+        }
+        this.ttlMillis = unit.toMillis(ttl);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedProfiles> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        };
+    }
+
+    /**
+     * Encode profiles which do not belong to a known session: they are keyed by their digest only.
+     */
+    @Override
+    public Object encode(final Object profiles) {
+        return encode(null, profiles);
+    }
+
+    @Override
+    public Object encode(final String sessionId, final Object profiles) {
+        return reference(sessionId, digest((byte[]) profileCodec.encode(profiles)));
+    }
+
+    /**
+     * Write the profiles to the store with the time to live, then cache them on this node.
+     */
+    @Override
+    public Future<Object> write(final String sessionId, final Object profiles) {
+        final byte[] encoded = (byte[]) profileCodec.encode(profiles);
+        final byte[] reference = reference(sessionId, digest(encoded));
+        final String key = referenceKey(reference);
+        final long writtenAt = System.currentTimeMillis();
+        return asyncStore.setAsync(key, entry(encoded, writtenAt), ttlMillis, TimeUnit.MILLISECONDS)
+                .onFailure(e -> LOG.warn("Cannot store the user profiles {}", key, e))
+                .map(v -> {
+                    cache(key, encoded, writtenAt);
+                    return reference;
+                });
+    }
+
+    private static byte[] reference(final String sessionId, final byte[] digest) {
+        final byte[] reference;
+        if (sessionId == null) {
+            reference = new byte[2 + DIGEST_LENGTH];
+            reference[1] = SHARED_VERSION;
+            System.arraycopy(digest, 0, reference, 2, DIGEST_LENGTH);
+        } else {
+            final byte[] key = (sessionId + "." + digestKey(digest)).getBytes(StandardCharsets.UTF_8);
+            reference = new byte[2 + key.length];
+            reference[1] = VERSION;
+            System.arraycopy(key, 0, reference, 2, key.length);
+        }
+        reference[0] = MAGIC;
+        return reference;
+    }
+
+    @Override
+    public Future<Void> prefetch(final Object value) {
+        final String key = isReference(value) ? referenceKey((byte[]) value) : null;
+        if (key == null) {
+            return Future.succeededFuture();
+        }
+        final CachedProfiles cached = cached(key);
+        if (cached != null) {
+            refresh(key, cached);
+            return Future.succeededFuture();
+        }
+        return asyncStore.getAsync(key).map(entry -> {
+            entry.ifPresent(e -> refresh(key, cache(key, Arrays.copyOfRange(e, WRITTEN_AT_LENGTH, e.length),
+                    ByteBuffer.wrap(e).getLong())));
+            return null;
+        });
+    }
+
+    /**
+     * Decode a value read from the session. The profiles of a reference are only read from the cache of this node,
+     * filled by {@link #prefetch(Object)}: they are missing if they were not prefetched, or not found in the store.
+     */
+    @Override
+    public Object decode(final Object value) {
+        if (!isReference(value)) {
+            return profileCodec.decode(value);
+        }
+        final String key = referenceKey((byte[]) value);
+        final CachedProfiles cached = cached(key);
+        if (cached == null) {
+            LOG.debug("User profiles {} not prefetched, or not found in the store", key);
+            return null;
+        }
+        refresh(key, cached);
+        return profileCodec.decode(cached.encoded);
+    }
+
+    @Override
+    public Future<Void> discard(final Object value) {
+        if (!isReference(value) || ((byte[]) value)[1] != VERSION) {
+            // the shared references may be used by other sessions, they expire
+            return Future.succeededFuture();
+        }
+        final String key = referenceKey((byte[]) value);
+        synchronized (cache) {
+            cache.remove(key);
+        }
+        return asyncStore.removeAsync(key)
+                .onFailure(e -> LOG.warn("Cannot remove the user profiles {}", key, e));
+    }
+
+    /** Extend the time to live of profiles still in use, once half of it has elapsed since they were last written. */
+    private void refresh(final String key, final CachedProfiles cached) {
+        final long now = System.currentTimeMillis();
+        synchronized (cached) {
+            if (now - cached.writtenAt < ttlMillis / 2) {
+                return;
+            }
+            cached.writtenAt = now;
+        }
+        asyncStore.setAsync(key, entry(cached.encoded, now), ttlMillis, TimeUnit.MILLISECONDS)
+                .onFailure(e -> LOG.warn("Cannot extend the time to live of the user profiles {}", key, e));
+    }
+
+    private static byte[] entry(final byte[] encoded, final long writtenAt) {
+        return ByteBuffer.allocate(WRITTEN_AT_LENGTH + encoded.length).putLong(writtenAt).put(encoded).array();
+    }
+
+    private static boolean isReference(final Object value) {
+        if (!(value instanceof byte[])) {
+            return false;
+        }
+        final byte[] bytes = (byte[]) value;
+        return bytes.length > 2 && bytes[0] == MAGIC;
+    }
+
+    private static String referenceKey(final byte[] reference) {
+        if (reference[1] == VERSION) {
+            return new String(reference, 2, reference.length - 2, StandardCharsets.UTF_8);
+        } else if (reference[1] == SHARED_VERSION && reference.length == 2 + DIGEST_LENGTH) {
+            return digestKey(Arrays.copyOfRange(reference, 2, reference.length));
+        }
+        throw new TechnicalException("Unsupported user profiles reference version: " + reference[1]);
+    }
+
+    private static byte[] digest(final byte[] encoded) {
+        try {
+            return Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(encoded), DIGEST_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new TechnicalException(e);
+        }
+    }
+
+    private static String digestKey(final byte[] digest) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private CachedProfiles cached(final String key) {
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    private CachedProfiles cache(final String key, final byte[] encoded, final long writtenAt) {
+        final CachedProfiles cached = new CachedProfiles(encoded, writtenAt);
+        synchronized (cache) {
+            cache.put(key, cached);
+        }
+        return cached;
+    }
+
+    private static final class CachedProfiles {
+        private final byte[] encoded;
+        /** When the profiles were last written to the store, by any node. */
+        private long writtenAt;
+
+        private CachedProfiles(final byte[] encoded, final long writtenAt) {
+            this.encoded = encoded;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
@@ -1,36 +1,91 @@
 package org.pac4j.vertx.context.session;
 
+import io.vertx.core.Future;
+import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.Session;
 import io.vertx.ext.web.sstore.SessionStore;
 import org.pac4j.core.context.WebContext;
-import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.util.Pac4jConstants;
-import org.pac4j.core.util.serializer.JavaSerializer;
 import org.pac4j.vertx.VertxWebContext;
+import org.pac4j.vertx.core.BlockingFutures;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Vert.x implementation of pac4j SessionStore interface to access the existing vertx-web session.
+ *
+ * <p>The user profiles of the current request's session are decoded at most once per request and kept on the
+ * routing context, or on the store itself when it is built on a given session. Writes go to that copy and are only
+ * encoded into the session when the response headers are written, just before the session is flushed. They are
+ * skipped if the profiles are equal to the ones the session holds, e.g. when pac4j saves back the profiles it read,
+ * so that neither the encoding nor the write of the session are done for nothing. The profiles are compared as
+ * maps: a profile modified in place, without being replaced, is not seen as a change.</p>
+ *
+ * <p>The profiles are only written to the session once the codec has persisted what it keeps outside of it, and the
+ * replaced ones are discarded after that. The handlers {@link #flushProfiles(RoutingContext) flush} them before
+ * responding, so that the response waits for that write.</p>
  */
 public class VertxSessionStore implements org.pac4j.core.context.session.SessionStore {
 
+    private static final Logger LOG = LoggerFactory.getLogger(VertxSessionStore.class);
+
+    /** Default maximum time to wait for the Vert.x session store when resolving a trackable session. */
+    public static final long DEFAULT_TRACKABLE_SESSION_TIMEOUT_MILLIS = 10_000;
+
+    private static final String DECODED_PROFILES_KEY = VertxSessionStore.class.getName() + ".profiles";
+
+    /** The profiles of a session value which could not be decoded, unequal to any profiles. */
+    private static final Object UNREADABLE = new Object();
+
     private final SessionStore sessionStore;
-    private static final JavaSerializer JAVA_SERIALIZER = new JavaSerializer();
+    private final ProfileCodec profileCodec;
 
     private final Session providedSession;
+    // the decoded profiles of the provided session
+    private DecodedProfiles providedProfiles;
+
+    private volatile long trackableSessionTimeoutMillis = DEFAULT_TRACKABLE_SESSION_TIMEOUT_MILLIS;
+    private volatile Pac4jMetrics metrics = Pac4jMetrics.NONE;
+
+    // shared with the stores built from trackable sessions
+    private LongAdder profileWrites = new LongAdder();
+    private LongAdder skippedProfileWrites = new LongAdder();
 
     public VertxSessionStore(final SessionStore sessionStore) {
-        this(sessionStore, null);
+        this(sessionStore, (Session) null);
     }
 
     public VertxSessionStore(final SessionStore sessionStore, final Session providedSession) {
+        this(sessionStore, providedSession, JavaProfileCodec.INSTANCE);
+    }
+
+    /**
+     * @param sessionStore the Vert.x session store
+     * @param profileCodec the codec of the user profiles kept in the session, by default the {@link JavaProfileCodec}
+     *                     which all the versions can read: switch to the {@link BinaryProfileCodec} once all the nodes
+     *                     sharing the sessions run a version which reads it
+     */
+    public VertxSessionStore(final SessionStore sessionStore, final ProfileCodec profileCodec) {
+        this(sessionStore, null, profileCodec);
+    }
+
+    public VertxSessionStore(final SessionStore sessionStore, final Session providedSession,
+                             final ProfileCodec profileCodec) {
         this.sessionStore = Objects.requireNonNull(sessionStore, "sessionStore");
         this.providedSession = providedSession;
+        this.profileCodec = Objects.requireNonNull(profileCodec, "profileCodec");
     }
 
     protected Session getVertxSession(final WebContext context) {
@@ -55,11 +110,7 @@ public class VertxSessionStore implements org.pac4j.core.context.session.Session
         final Session vertxSession = getVertxSession(context);
         if (vertxSession != null) {
             if (Pac4jConstants.USER_PROFILES.equals(key)) {
-                final String value = vertxSession.get(key);
-                if (value != null) {
-                    byte[] inputBytes = Base64.getDecoder().decode(value);
-                    return Optional.ofNullable(JAVA_SERIALIZER.deserializeFromBytes(inputBytes));
-                }
+                return Optional.ofNullable(decodedProfiles(context, vertxSession).profiles);
             }
             return Optional.ofNullable(vertxSession.get(key));
         }
@@ -70,14 +121,147 @@ public class VertxSessionStore implements org.pac4j.core.context.session.Session
     public void set(final WebContext context, final String key, final Object value) {
         final Session vertxSession = getVertxSession(context);
         if (vertxSession != null) {
-            if (value == null) {
+            if (Pac4jConstants.USER_PROFILES.equals(key)) {
+                setDecodedProfiles(context, vertxSession, value);
+            } else if (value == null) {
                 vertxSession.remove(key);
             } else {
-                if (Pac4jConstants.USER_PROFILES.equals(key)) {
-                    vertxSession.put(key, Base64.getEncoder().encodeToString(JAVA_SERIALIZER.serializeToBytes(value)));
-                } else {
-                    vertxSession.put(key, value);
-                }
+                vertxSession.put(key, value);
+            }
+        }
+    }
+
+    private VertxSessionStore trackedSessionStore(final Session session) {
+        final VertxSessionStore store = new VertxSessionStore(sessionStore, session, profileCodec);
+        store.metrics = metrics;
+        store.profileWrites = profileWrites;
+        store.skippedProfileWrites = skippedProfileWrites;
+        return store;
+    }
+
+    /**
+     * Encode the profiles into the session, the codec persisting first what it keeps outside of it, then release what
+     * it kept for the replaced value.
+     */
+    private Future<Void> writeProfiles(final Session vertxSession, final DecodedProfiles decoded,
+                                       final Object profiles) {
+        profileWrites.increment();
+        decoded.dirty = false;
+        if (profiles == null) {
+            final Object current = vertxSession.remove(Pac4jConstants.USER_PROFILES);
+            decoded.stored = null;
+            return (current != null) ? profileCodec.discard(current) : Future.succeededFuture();
+        }
+        return encodeProfiles(vertxSession, profiles).map(encoded -> {
+            final Object replaced = vertxSession.get(Pac4jConstants.USER_PROFILES);
+            vertxSession.put(Pac4jConstants.USER_PROFILES, encoded);
+            decoded.stored = snapshot(profiles);
+            if (replaced != null && !sameValue(replaced, encoded)) {
+                profileCodec.discard(replaced);
+            }
+            return (Void) null;
+        }).onFailure(e -> {
+            // the session keeps its former profiles
+            decoded.dirty = true;
+            LOG.warn("Cannot write the user profiles of the session", e);
+        });
+    }
+
+    private static boolean sameValue(final Object current, final Object encoded) {
+        if (current instanceof byte[] && encoded instanceof byte[]) {
+            return Arrays.equals((byte[]) current, (byte[]) encoded);
+        }
+        return Objects.equals(current, encoded);
+    }
+
+    /** A copy of the profiles map, so that the profiles the session holds are not modified with the current ones. */
+    @SuppressWarnings("unchecked")
+    private static Object snapshot(final Object profiles) {
+        return (profiles instanceof Map) ? new LinkedHashMap<>((Map<Object, Object>) profiles) : profiles;
+    }
+
+    private Future<Object> encodeProfiles(final Session vertxSession, final Object profiles) {
+        if (metrics == Pac4jMetrics.NONE) {
+            return profileCodec.write(vertxSession.id(), profiles);
+        }
+        final long start = System.nanoTime();
+        return profileCodec.write(vertxSession.id(), profiles)
+                .onSuccess(encoded -> metrics.profilesEncoded(System.nanoTime() - start, sizeOf(encoded)));
+    }
+
+    private Object decodeProfiles(final Object value) {
+        if (metrics == Pac4jMetrics.NONE) {
+            return profileCodec.decode(value);
+        }
+        final long start = System.nanoTime();
+        final Object profiles = profileCodec.decode(value);
+        metrics.profilesDecoded(System.nanoTime() - start, sizeOf(value));
+        return profiles;
+    }
+
+    private static int sizeOf(final Object encoded) {
+        if (encoded instanceof byte[]) {
+            return ((byte[]) encoded).length;
+        } else if (encoded instanceof CharSequence) {
+            return ((CharSequence) encoded).length();
+        }
+        return -1;
+    }
+
+    private static RoutingContext routingContext(final WebContext context) {
+        return ((VertxWebContext) context).getVertxRoutingContext();
+    }
+
+    private DecodedProfiles decodedProfiles(final WebContext context, final Session vertxSession) {
+        DecodedProfiles decoded = (providedSession != null) ? providedProfiles
+                : routingContext(context).<DecodedProfiles>get(DECODED_PROFILES_KEY);
+        if (decoded == null) {
+            final Object value = vertxSession.get(Pac4jConstants.USER_PROFILES);
+            final Object profiles = (value != null) ? decodeProfiles(value) : null;
+            decoded = new DecodedProfiles(profiles);
+            if (value != null && profiles == null) {
+                // so that the value is still replaced, or removed
+                decoded.stored = UNREADABLE;
+            }
+            if (providedSession != null) {
+                providedProfiles = decoded;
+            } else {
+                routingContext(context).put(DECODED_PROFILES_KEY, decoded);
+            }
+        }
+        return decoded;
+    }
+
+    private void setDecodedProfiles(final WebContext context, final Session vertxSession, final Object profiles) {
+        final DecodedProfiles decoded = decodedProfiles(context, vertxSession);
+        decoded.profiles = profiles;
+        if (Objects.equals(profiles, decoded.stored)) {
+            // back to the profiles the session holds
+            decoded.dirty = false;
+            skippedProfileWrites.increment();
+            return;
+        }
+
+        if (profiles == null || providedSession != null) {
+            writeProfiles(vertxSession, decoded, profiles);
+            return;
+        }
+        final RoutingContext rc = routingContext(context);
+        if (rc.response().headWritten()) {
+            // too late for the deferred write
+            writeProfiles(vertxSession, decoded, profiles);
+        } else {
+            decoded.dirty = true;
+            if (!decoded.flushRegistered) {
+                decoded.flushRegistered = true;
+                // headers end handlers run in reverse order, so this runs before the session handler flushes
+                rc.addHeadersEndHandler(v -> {
+                    if (decoded.dirty && !vertxSession.isDestroyed()
+                            && !writeProfiles(vertxSession, decoded, decoded.profiles).isComplete()) {
+                        LOG.warn("The user profiles are written to the session after the response headers, they may "
+                                + "not be kept: flush them before responding");
+                    }
+                });
             }
         }
     }
@@ -86,7 +270,13 @@ public class VertxSessionStore implements org.pac4j.core.context.session.Session
     public boolean destroySession(final WebContext context) {
         final Session vertxSession = getVertxSession(context);
         if (vertxSession != null) {
+            discardProfiles(vertxSession);
             vertxSession.destroy();
+            if (providedSession == null) {
+                routingContext(context).remove(DECODED_PROFILES_KEY);
+            } else {
+                providedProfiles = null;
+            }
             return true;
         }
         return false;
@@ -104,36 +294,149 @@ public class VertxSessionStore implements org.pac4j.core.context.session.Session
     @Override
     public Optional<org.pac4j.core.context.session.SessionStore> buildFromTrackableSession(final WebContext context, final Object trackableSession) {
         if (trackableSession != null) {
-            final CompletableFuture<Session> vertxSessionFuture = new CompletableFuture<>();
-
-            sessionStore
-                    .get((String) trackableSession)
-                    .onComplete(ar -> {
-                        if (ar.succeeded()) {
-                            vertxSessionFuture.complete(ar.result());
-                        } else {
-                            vertxSessionFuture.completeExceptionally(ar.cause());
-                        }
-                    });
-
-            final CompletableFuture<VertxSessionStore> pac4jSessionFuture = vertxSessionFuture.thenApply(sess -> {
-                if (sess != null) {
-                    return new VertxSessionStore(sessionStore, sess);
-                } else {
-                    return null;
-                }
-            });
-
-            try {
-                return Optional.ofNullable(pac4jSessionFuture.get());
-            } catch (InterruptedException | ExecutionException e) {
-                Thread.currentThread().interrupt();
-                throw new TechnicalException(e);
-            }
+            // the async lookup already times out, the wait timeout is only a safety net
+            return BlockingFutures.await(buildFromTrackableSessionAsync(trackableSession),
+                    2 * trackableSessionTimeoutMillis, TimeUnit.MILLISECONDS);
         }
         return Optional.empty();
     }
 
+    /**
+     * Non blocking variant of {@link #buildFromTrackableSession(WebContext, Object)}.
+     *
+     * @param trackableSession the trackable session, i.e. the Vert.x session id
+     * @return the pac4j session store of that session, empty if it does not exist anymore; failed if the lookup
+     * failed or did not complete within the trackable session timeout
+     */
+    public Future<Optional<org.pac4j.core.context.session.SessionStore>> buildFromTrackableSessionAsync(final Object trackableSession) {
+        if (trackableSession == null) {
+            return Future.succeededFuture(Optional.empty());
+        }
+        return sessionStore
+                .get((String) trackableSession)
+                .compose(this::prefetched)
+                .timeout(trackableSessionTimeoutMillis, TimeUnit.MILLISECONDS)
+                .map(sess -> Optional.ofNullable(sess != null ? trackedSessionStore(sess) : null));
+    }
+
+    /**
+     * Resolve several trackable sessions concurrently, e.g. for a bulk logout.
+     *
+     * @param trackableSessions the trackable sessions
+     * @return the pac4j session stores of the sessions which still exist, by trackable session; failed if any of
+     * the lookups failed
+     */
+    public Future<Map<Object, org.pac4j.core.context.session.SessionStore>> buildFromTrackableSessionsAsync(final Collection<?> trackableSessions) {
+        final List<Object> list = new ArrayList<>(trackableSessions);
+        final List<Future<Optional<org.pac4j.core.context.session.SessionStore>>> lookups = new ArrayList<>(list.size());
+        for (final Object trackableSession : list) {
+            lookups.add(buildFromTrackableSessionAsync(trackableSession));
+        }
+        return Future.all(lookups).map(all -> {
+            final Map<Object, org.pac4j.core.context.session.SessionStore> stores = new LinkedHashMap<>();
+            for (int i = 0; i < list.size(); i++) {
+                final Optional<org.pac4j.core.context.session.SessionStore> store = all.resultAt(i);
+                final Object trackableSession = list.get(i);
+                store.ifPresent(s -> stores.put(trackableSession, s));
+            }
+            return stores;
+        });
+    }
+
+    /**
+     * Write the changed user profiles of the request to the session now, instead of when the response headers are
+     * written, so that the response can wait for the codec to persist them. Called by the handlers before responding.
+     *
+     * @param routingContext the routing context of the request
+     * @return the completion, failed if the profiles could not be written: the session keeps the former ones
+     */
+    public Future<Void> flushProfiles(final RoutingContext routingContext) {
+        final Session vertxSession = (providedSession != null) ? providedSession : routingContext.session();
+        final DecodedProfiles decoded = (providedSession != null) ? providedProfiles
+                : routingContext.<DecodedProfiles>get(DECODED_PROFILES_KEY);
+        if (vertxSession == null || decoded == null || !decoded.dirty || vertxSession.isDestroyed()) {
+            return Future.succeededFuture();
+        }
+        return writeProfiles(vertxSession, decoded, decoded.profiles);
+    }
+
+    /**
+     * Make the user profiles of the request's session decodable without blocking, for the codecs keeping them outside
+     * of the session. Called by the handlers before running the pac4j logic.
+     *
+     * @param routingContext the routing context of the request
+     * @return the completion
+     */
+    public Future<Void> prefetchProfiles(final RoutingContext routingContext) {
+        final Session vertxSession = (providedSession != null) ? providedSession : routingContext.session();
+        return (vertxSession != null) ? prefetch(vertxSession) : Future.succeededFuture();
+    }
+
+    /** The session once its profiles are prefetched, they are read as missing if they cannot be. */
+    private Future<Session> prefetched(final Session vertxSession) {
+        if (vertxSession == null) {
+            return Future.succeededFuture();
+        }
+        return prefetch(vertxSession).otherwise(e -> {
+            LOG.warn("Cannot prefetch the user profiles of the session {}", vertxSession.id(), e);
+            return null;
+        }).map(vertxSession);
+    }
+
+    private Future<Void> prefetch(final Session vertxSession) {
+        final Object value = vertxSession.get(Pac4jConstants.USER_PROFILES);
+        return (value != null) ? profileCodec.prefetch(value) : Future.succeededFuture();
+    }
+
+    /**
+     * Delete the session of a store built from a trackable session from the Vert.x session store, with the user
+     * profiles its codec keeps outside of it.
+     *
+     * @return the completion
+     */
+    public Future<Void> deleteTrackedSession() {
+        if (providedSession == null) {
+            return Future.failedFuture(new IllegalStateException("Not built from a trackable session"));
+        }
+        return discardProfiles(providedSession).transform(ar -> sessionStore.delete(providedSession.id()));
+    }
+
+    private Future<Void> discardProfiles(final Session vertxSession) {
+        final Object value = vertxSession.get(Pac4jConstants.USER_PROFILES);
+        return (value != null) ? profileCodec.discard(value) : Future.succeededFuture();
+    }
+
+    /**
+     * Report the encoding and decoding of the user profiles, see {@link Pac4jMetrics}.
+     *
+     * @param metrics the metrics
+     */
+    public void setMetrics(final Pac4jMetrics metrics) {
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+    }
+
+    /** @return the number of writes of the user profiles to the session */
+    public long getProfileWrites() {
+        return profileWrites.sum();
+    }
+
+    /** @return the number of writes of the user profiles skipped because the session already held equal ones */
+    public long getSkippedProfileWrites() {
+        return skippedProfileWrites.sum();
+    }
+
+    /** @return the maximum time to wait for the Vert.x session store when resolving a trackable session */
+    public long getTrackableSessionTimeoutMillis() {
+        return trackableSessionTimeoutMillis;
+    }
+
+    public void setTrackableSessionTimeout(final long timeout, final TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        this.trackableSessionTimeoutMillis = unit.toMillis(timeout);
+    }
+
     @Override
     public boolean renewSession(final WebContext context) {
         final Session vertxSession = getVertxSession(context);
@@ -143,4 +446,18 @@ public class VertxSessionStore implements org.pac4j.core.context.session.Session
         }
         return false;
     }
+
+    /** The user profiles of the request's session, decoded once for the whole request. */
+    private static final class DecodedProfiles {
+        private Object profiles;
+        /** A copy of the profiles the session holds, as decoded or last written. */
+        private Object stored;
+        private boolean dirty;
+        private boolean flushRegistered;
+
+        private DecodedProfiles(final Object profiles) {
+            this.profiles = profiles;
+            this.stored = snapshot(profiles);
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package org.pac4j.vertx.core;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import org.pac4j.core.exception.TechnicalException;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits on Vert.x futures from the blocking pac4j logic.
+ *
+ * <p>On a virtual thread the wait parks the thread through {@link Future#await(long, TimeUnit)}, which also lets
+ * the other tasks of its context run, otherwise it blocks the calling worker thread. Waiting on an event loop is
+ * refused as the result would be delivered to the very thread being blocked.</p>
+ *
+ * @since 7.0.4
+ */
+public final class BlockingFutures {
+
+    private BlockingFutures() {
+    }
+
+    public static <T> T await(final Future<T> future, final long timeout, final TimeUnit unit) {
+        if (future.isComplete()) {
+            if (future.failed()) {
+                throw new TechnicalException(future.cause());
+            }
+            return future.result();
+        }
+        if (Context.isOnEventLoopThread()) {
+            throw new TechnicalException("Cannot block on an event loop, use the asynchronous API instead");
+        }
+        try {
+            if (isOnVirtualThread()) {
+                // rethrows the failures unchecked
+                return future.await(timeout, unit);
+            }
+            return future.toCompletionStage().toCompletableFuture().get(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TechnicalException(e);
+        } catch (ExecutionException e) {
+            throw new TechnicalException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new TechnicalException(e);
+        } catch (RuntimeException e) {
+            if (e instanceof TechnicalException) {
+                throw e;
+            }
+            throw new TechnicalException(e);
+        }
+    }
+
+    private static boolean isOnVirtualThread() {
+        final Context context = Vertx.currentContext();
+        return context != null && context.threadingModel() == ThreadingModel.VIRTUAL_THREAD;
+    }
+}
@@ -1,10 +1,16 @@
 package org.pac4j.vertx.core;
 
 import com.fasterxml.jackson.annotation.*;
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.github.scribejava.core.model.OAuth1RequestToken;
 import com.github.scribejava.core.model.Token;
 import com.nimbusds.oauth2.sdk.Scope;
@@ -17,7 +23,11 @@ import org.pac4j.core.exception.TechnicalException;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>Default eventbus object converter</p>
@@ -28,6 +38,9 @@ import java.util.List;
  * <li>Otherwise, convert to a JsonObject with the class name in the "class" attribute and the serialized form with Jackson in the "value" attribute.
  * The (de)serialization Jackson process can be customized using the <code>addMixIn(target, mixinSource)</code> method</li>
  * </ul>
+ * <p>Objects are converted to and from the Jackson token stream directly, without intermediate JSON strings, and
+ * the class lookups and Jackson readers and writers are cached per class. The decodable classes can be restricted
+ * to an allowlist of class name prefixes.</p>
  * 
  * @author Michael Remond
  * @since 1.1.0
@@ -35,7 +48,15 @@ import java.util.List;
  */
 public class DefaultJsonConverter implements JsonConverter {
 
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
     private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectReader mapReader;
+    private final ObjectWriter mapWriter;
+    private final List<String> allowedClassPrefixes;
+    private final ConcurrentMap<String, TypeCodec> codecsByName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, TypeCodec> codecsByClass = new ConcurrentHashMap<>();
     private static final DefaultJsonConverter INSTANCE = new DefaultJsonConverter();
 
     public static JsonConverter getInstance() {
@@ -43,6 +64,16 @@ public class DefaultJsonConverter implements JsonConverter {
     }
 
     public DefaultJsonConverter() {
+        this(null);
+    }
+
+    /**
+     * @param allowedClassPrefixes the prefixes of the names of the classes which can be decoded, e.g.
+     *                             <code>org.pac4j.</code> or a full class name; <code>null</code> to allow any class
+     * @since 7.0.4
+     */
+    public DefaultJsonConverter(final Collection<String> allowedClassPrefixes) {
+        this.allowedClassPrefixes = (allowedClassPrefixes != null) ? List.copyOf(allowedClassPrefixes) : null;
         mapper.setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
         mapper.setVisibility(PropertyAccessor.GETTER, JsonAutoDetect.Visibility.NONE);
         mapper.setVisibility(PropertyAccessor.IS_GETTER, JsonAutoDetect.Visibility.NONE);
@@ -51,6 +82,30 @@ public class DefaultJsonConverter implements JsonConverter {
             .addMixIn(BearerAccessToken.class, BearerAccessTokenMixin.class)
             .addMixIn(Scope.Value.class, ValueMixin.class)
             .addMixIn(Token.class, TokenMixin.class);
+        // binary values as Jackson base64 strings, as they were when encoding to a JSON string
+        mapper.registerModule(new SimpleModule().addSerializer(byte[].class, new StdSerializer<>(byte[].class) {
+            @Override
+            public void serialize(byte[] value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                gen.writeString(Base64Variants.getDefaultVariant().encode(value));
+            }
+        }));
+
+        mapReader = mapper.readerFor(MAP_TYPE);
+        // the decoded values can contain Vert.x JSON types, e.g. after an event bus copy
+        final SimpleModule vertxJson = new SimpleModule()
+            .addSerializer(JsonObject.class, new StdSerializer<>(JsonObject.class) {
+                @Override
+                public void serialize(JsonObject value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                    provider.defaultSerializeValue(value.getMap(), gen);
+                }
+            })
+            .addSerializer(JsonArray.class, new StdSerializer<>(JsonArray.class) {
+                @Override
+                public void serialize(JsonArray value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+                    provider.defaultSerializeValue(value.getList(), gen);
+                }
+            });
+        mapWriter = new ObjectMapper().registerModule(vertxJson).writerFor(MAP_TYPE);
     }
 
     @Override
@@ -99,13 +154,49 @@ public class DefaultJsonConverter implements JsonConverter {
     }
 
     private Object decode(JsonObject src) {
+        final TypeCodec codec = codecFor(src.getString("class"));
         try {
-            return decode(src.getJsonObject("value").encode(), Class.forName(src.getString("class")));
+            return decode(src.getJsonObject("value").getMap(), codec);
         } catch (Exception e) {
             throw new TechnicalException("Error while decoding object", e);
         }
     }
 
+    private TypeCodec codecFor(final String className) {
+        final TypeCodec codec = codecsByName.get(className);
+        if (codec != null) {
+            return codec;
+        }
+        if (className == null || !isAllowed(className)) {
+            throw new TechnicalException("Class not allowed for decoding: " + className);
+        }
+        final Class<?> clazz;
+        try {
+            clazz = Class.forName(className);
+        } catch (ClassNotFoundException e) {
+            throw new TechnicalException("Error while decoding object", e);
+        }
+        final TypeCodec created = codecFor(clazz);
+        codecsByName.putIfAbsent(className, created);
+        return created;
+    }
+
+    private TypeCodec codecFor(final Class<?> clazz) {
+        return codecsByClass.computeIfAbsent(clazz, c -> new TypeCodec(mapper.readerFor(c), mapper.writerFor(c)));
+    }
+
+    private boolean isAllowed(final String className) {
+        if (allowedClassPrefixes == null) {
+            return true;
+        }
+        for (final String prefix : allowedClassPrefixes) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void fillDecodedList(JsonArray src, List<Object> list) {
         for (Object object : src) {
             list.add(decodeObject(object));
@@ -116,13 +207,27 @@ public class DefaultJsonConverter implements JsonConverter {
         return value instanceof String || value instanceof Number || value instanceof Boolean;
     }
 
-    private String encode(Object value) throws JsonGenerationException, JsonMappingException, IOException {
-        return mapper.writeValueAsString(value);
+    private Map<String, Object> encode(Object value) throws IOException {
+        final TokenBuffer buffer = new TokenBuffer(mapper, false);
+        codecFor(value.getClass()).writer.writeValue(buffer, value);
+        return mapReader.readValue(buffer.asParser());
+    }
+
+    private Object decode(Map<String, Object> map, TypeCodec codec) throws IOException {
+        final TokenBuffer buffer = new TokenBuffer(mapper, false);
+        mapWriter.writeValue(buffer, map);
+        return codec.reader.readValue(buffer.asParser());
     }
 
-    @SuppressWarnings("unchecked")
-    private <T> T decode(String string, Class<?> clazz) throws JsonParseException, JsonMappingException, IOException {
-        return (T) mapper.readValue(string, clazz);
+    /** The cached Jackson reader and writer of a class. */
+    private static final class TypeCodec {
+        private final ObjectReader reader;
+        private final ObjectWriter writer;
+
+        private TypeCodec(final ObjectReader reader, final ObjectWriter writer) {
+            this.reader = reader;
+            this.writer = writer;
+        }
     }
 
     public static class BearerAccessTokenMixin {
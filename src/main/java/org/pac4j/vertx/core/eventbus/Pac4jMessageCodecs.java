@@ -0,0 +1,70 @@
+package org.pac4j.vertx.core.eventbus;
+
+import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.MessageCodec;
+import org.pac4j.core.profile.BasicUserProfile;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.oidc.profile.OidcProfile;
+import org.pac4j.vertx.auth.ImmutablePac4jUser;
+import org.pac4j.vertx.auth.Pac4jUser;
+import org.pac4j.vertx.context.session.BinaryProfileCodec;
+
+import java.util.List;
+
+/**
+ * <p>Registration of the event bus codecs of the pac4j users and profiles, so that they can be sent as is.</p>
+ * <p>The codecs must be registered on all the nodes of a cluster, with the same profile types. A profile class is
+ * only handled if it is registered itself: Vert.x looks up the default codecs by exact class.</p>
+ *
+ * @since 7.0.4
+ */
+public final class Pac4jMessageCodecs {
+
+    /** Prefix of the names of the profile codecs, followed by the profile class name. */
+    public static final String PROFILE_CODEC_PREFIX = "pac4j.profile.";
+
+    private static final List<Class<? extends UserProfile>> DEFAULT_PROFILE_TYPES =
+            List.of(CommonProfile.class, BasicUserProfile.class, OidcProfile.class);
+
+    private Pac4jMessageCodecs() {
+    }
+
+    /**
+     * Register the codecs of {@link Pac4jUser}, {@link ImmutablePac4jUser} and of the common profile types.
+     *
+     * @param eventBus the event bus
+     */
+    public static void register(final EventBus eventBus) {
+        register(eventBus, BinaryProfileCodec.INSTANCE, DEFAULT_PROFILE_TYPES);
+    }
+
+    /**
+     * Register the codecs of {@link Pac4jUser}, {@link ImmutablePac4jUser} and of the given profile types.
+     *
+     * @param eventBus the event bus
+     * @param profileCodec the binary codec of the profiles, e.g. with custom profile types registered
+     * @param profileTypes the exact profile classes to send over the event bus
+     */
+    public static void register(final EventBus eventBus, final BinaryProfileCodec profileCodec,
+                                final List<Class<? extends UserProfile>> profileTypes) {
+        eventBus.registerDefaultCodec(Pac4jUser.class, new Pac4jUserMessageCodec(profileCodec));
+        registerImmutableUserCodec(eventBus, Pac4jUserMessageCodec.immutable(profileCodec));
+        for (final Class<? extends UserProfile> type : profileTypes) {
+            registerProfileCodec(eventBus, type, new UserProfileMessageCodec(PROFILE_CODEC_PREFIX + type.getName(),
+                    profileCodec));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void registerImmutableUserCodec(final EventBus eventBus,
+                                                   final MessageCodec<Pac4jUser, Pac4jUser> codec) {
+        eventBus.registerDefaultCodec((Class) ImmutablePac4jUser.class, codec);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void registerProfileCodec(final EventBus eventBus, final Class<? extends UserProfile> type,
+                                             final MessageCodec<UserProfile, UserProfile> codec) {
+        eventBus.registerDefaultCodec((Class) type, codec);
+    }
+}
@@ -0,0 +1,82 @@
+package org.pac4j.vertx.core.eventbus;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import org.pac4j.vertx.auth.ImmutablePac4jUser;
+import org.pac4j.vertx.auth.Pac4jUser;
+import org.pac4j.vertx.context.session.BinaryProfileCodec;
+
+import java.util.Objects;
+
+/**
+ * <p>Event bus codec of a {@link Pac4jUser}.</p>
+ * <p>Local deliveries pass an {@link ImmutablePac4jUser} itself, without any copy. A mutable user is copied, except
+ * for its profiles which are shared: they must not be modified once sent. Clustered deliveries use the binary cluster serialization format of the user, see {@link Pac4jUser#writeToBuffer(Buffer)}.</p>
+ *
+ * @since 7.0.4
+ */
+public class Pac4jUserMessageCodec implements MessageCodec<Pac4jUser, Pac4jUser> {
+
+    public static final String NAME = "pac4j.user";
+    public static final String IMMUTABLE_NAME = "pac4j.user.immutable";
+
+    private final BinaryProfileCodec profileCodec;
+    private final boolean immutable;
+
+    public Pac4jUserMessageCodec() {
+        this(BinaryProfileCodec.INSTANCE);
+    }
+
+    /**
+     * @param profileCodec the binary codec of the profiles, with the same profile types on all the nodes
+     */
+    public Pac4jUserMessageCodec(final BinaryProfileCodec profileCodec) {
+        this(profileCodec, false);
+    }
+
+    private Pac4jUserMessageCodec(final BinaryProfileCodec profileCodec, final boolean immutable) {
+        this.profileCodec = Objects.requireNonNull(profileCodec, "profileCodec");
+        this.immutable = immutable;
+    }
+
+    /**
+     * @param profileCodec the binary codec of the profiles, with the same profile types on all the nodes
+     * @return the codec of the {@link ImmutablePac4jUser}
+     */
+    public static Pac4jUserMessageCodec immutable(final BinaryProfileCodec profileCodec) {
+        return new Pac4jUserMessageCodec(profileCodec, true);
+    }
+
+    @Override
+    public void encodeToWire(final Buffer buffer, final Pac4jUser user) {
+        user.writeToBuffer(buffer, profileCodec);
+    }
+
+    @Override
+    public Pac4jUser decodeFromWire(final int pos, final Buffer buffer) {
+        final Pac4jUser user = immutable ? new ImmutablePac4jUser() : new Pac4jUser();
+        user.readFromBuffer(pos, buffer, profileCodec);
+        return user;
+    }
+
+    @Override
+    public Pac4jUser transform(final Pac4jUser user) {
+        if (user instanceof ImmutablePac4jUser) {
+            return user;
+        }
+        final Pac4jUser copy = new Pac4jUser(user.profiles());
+        copy.principal().mergeIn(user.principal().copy());
+        copy.attributes().mergeIn(user.attributes().copy());
+        return copy;
+    }
+
+    @Override
+    public String name() {
+        return immutable ? IMMUTABLE_NAME : NAME;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
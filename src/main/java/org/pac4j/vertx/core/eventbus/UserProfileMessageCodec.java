@@ -0,0 +1,64 @@
+package org.pac4j.vertx.core.eventbus;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.vertx.context.session.BinaryProfileCodec;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>Event bus codec of a pac4j {@link UserProfile}.</p>
+ * <p>Local deliveries pass the profile itself, without any copy: it must not be modified once sent. Clustered
+ * deliveries use the {@link BinaryProfileCodec} format, prefixed by its length.</p>
+ *
+ * @since 7.0.4
+ */
+public class UserProfileMessageCodec implements MessageCodec<UserProfile, UserProfile> {
+
+    private static final String KEY = "";
+
+    private final String name;
+    private final BinaryProfileCodec profileCodec;
+
+    /**
+     * @param name the codec name, which must be the same on all the nodes
+     * @param profileCodec the binary codec of the profiles, with the same profile types on all the nodes
+     */
+    public UserProfileMessageCodec(final String name, final BinaryProfileCodec profileCodec) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.profileCodec = Objects.requireNonNull(profileCodec, "profileCodec");
+    }
+
+    @Override
+    public void encodeToWire(final Buffer buffer, final UserProfile profile) {
+        final byte[] bytes = (byte[]) profileCodec.encode(Collections.singletonMap(KEY, profile));
+        buffer.appendInt(bytes.length).appendBytes(bytes);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public UserProfile decodeFromWire(final int pos, final Buffer buffer) {
+        final int length = buffer.getInt(pos);
+        final Map<String, UserProfile> profiles =
+                (Map<String, UserProfile>) profileCodec.decode(buffer.slice(pos + 4, pos + 4 + length));
+        return profiles.get(KEY);
+    }
+
+    @Override
+    public UserProfile transform(final UserProfile profile) {
+        return profile;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1;
+    }
+}
@@ -0,0 +1,85 @@
+package org.pac4j.vertx.core.store;
+
+import io.vertx.core.Future;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous counterpart of the pac4j {@link org.pac4j.core.store.Store}, for callers running on the event loop.
+ *
+ * @since 7.0.4
+ */
+public interface AsyncStore<K, V> {
+
+    Future<Optional<V>> getAsync(K key);
+
+    Future<Void> setAsync(K key, V value);
+
+    /**
+     * Set a value with its own time to live.
+     *
+     * @param key the key
+     * @param value the value
+     * @param ttl the time to live, 0 for no expiration
+     * @param unit the unit of the time to live
+     * @return the completion
+     */
+    Future<Void> setAsync(K key, V value, long ttl, TimeUnit unit);
+
+    Future<Void> removeAsync(K key);
+
+    /**
+     * Get several values at once. All the reads are issued before waiting for any of them.
+     *
+     * @param keys the keys
+     * @return the values of the keys which are present
+     */
+    default Future<Map<K, V>> getAllAsync(final Collection<? extends K> keys) {
+        final List<K> list = new ArrayList<>(keys);
+        final List<Future<Optional<V>>> reads = new ArrayList<>(list.size());
+        for (final K key : list) {
+            reads.add(getAsync(key));
+        }
+        return Future.all(reads).map(all -> {
+            final Map<K, V> values = new LinkedHashMap<>();
+            for (int i = 0; i < list.size(); i++) {
+                final Optional<V> value = all.resultAt(i);
+                final K key = list.get(i);
+                value.ifPresent(v -> values.put(key, v));
+            }
+            return values;
+        });
+    }
+
+    /**
+     * Set several values at once. All the writes are issued before waiting for any of them.
+     *
+     * @param values the values by key
+     * @return the completion, failed if any of the writes failed
+     */
+    default Future<Void> setAllAsync(final Map<? extends K, ? extends V> values) {
+        final List<Future<Void>> writes = new ArrayList<>(values.size());
+        values.forEach((key, value) -> writes.add(setAsync(key, value)));
+        return Future.all(writes).mapEmpty();
+    }
+
+    /**
+     * Remove several keys at once. All the removals are issued before waiting for any of them.
+     *
+     * @param keys the keys
+     * @return the completion, failed if any of the removals failed
+     */
+    default Future<Void> removeAllAsync(final Collection<? extends K> keys) {
+        final List<Future<Void>> removals = new ArrayList<>(keys.size());
+        for (final K key : keys) {
+            removals.add(removeAsync(key));
+        }
+        return Future.all(removals).mapEmpty();
+    }
+}
@@ -0,0 +1,98 @@
+package org.pac4j.vertx.core.store;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded per-node cache of a clustered map, whose entries are dropped after a maximum staleness.
+ */
+class NearCache<K, V> {
+
+    private final long maxStalenessMillis;
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * The keys being read from the clustered map, with a version bumped by each invalidation of the key so that a
+     * read started before it does not repopulate a stale value. Only the reads in flight are tracked.
+     */
+    private final Map<K, PendingReads> pendingReads = new HashMap<>();
+
+    NearCache(final int maxEntries, final long maxStalenessMillis) {
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    synchronized V get(final K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Start a read from the clustered map, which must be ended by {@link #endRead(Object, Object, long)}.
+     *
+     * @return the version of the key to end the read with
+     */
+    synchronized long startRead(final K key) {
+        final PendingReads pending = pendingReads.computeIfAbsent(key, k -> new PendingReads());
+        pending.readers++;
+        return pending.version;
+    }
+
+    /**
+     * End a read from the clustered map, caching its value unless the key was invalidated since the read started.
+     *
+     * @param value the value read, null if none or if the read failed
+     */
+    synchronized void endRead(final K key, final V value, final long version) {
+        final PendingReads pending = pendingReads.get(key);
+        if (pending == null) {
+            return;
+        }
+        if (value != null && pending.version == version) {
+            entries.put(key, new Entry<>(value, System.currentTimeMillis() + maxStalenessMillis));
+        }
+        if (--pending.readers == 0) {
+            pendingReads.remove(key);
+        }
+    }
+
+    synchronized void invalidate(final K key) {
+        final PendingReads pending = pendingReads.get(key);
+        if (pending != null) {
+            pending.version++;
+        }
+        entries.remove(key);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class PendingReads {
+        private int readers;
+        private long version;
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(final V value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
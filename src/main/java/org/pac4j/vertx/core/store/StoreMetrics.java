@@ -0,0 +1,96 @@
+package org.pac4j.vertx.core.store;
+
+import io.vertx.core.shareddata.Shareable;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters of the pac4j map stores of a namespace.
+ *
+ * @since 7.0.4
+ */
+public class StoreMetrics implements Shareable {
+
+    /** Name of the shared data map of the namespace. */
+    @Getter
+    private final String mapName;
+
+    private volatile IntSupplier size = () -> -1;
+
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder removals = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder nearCacheHits = new LongAdder();
+    private final LongAdder nearCacheMisses = new LongAdder();
+
+    StoreMetrics(final String mapName) {
+        this.mapName = mapName;
+    }
+
+    void sizeSupplier(final IntSupplier size) {
+        this.size = size;
+    }
+
+    void written() {
+        writes.increment();
+    }
+
+    void removed() {
+        removals.increment();
+    }
+
+    void evicted() {
+        evictions.increment();
+    }
+
+    void expired() {
+        expirations.increment();
+    }
+
+    void nearCacheHit() {
+        nearCacheHits.increment();
+    }
+
+    void nearCacheMiss() {
+        nearCacheMisses.increment();
+    }
+
+    /** @return the number of entries of a local map, -1 for a clustered one */
+    public int getSize() {
+        return size.getAsInt();
+    }
+
+    /** @return the number of values set */
+    public long getWrites() {
+        return writes.sum();
+    }
+
+    /** @return the number of keys explicitly removed */
+    public long getRemovals() {
+        return removals.sum();
+    }
+
+    /** @return the number of entries evicted because the store was full */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** @return the number of entries removed because their time to live elapsed */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /** @return the number of reads of a clustered store served by its near cache */
+    public long getNearCacheHits() {
+        return nearCacheHits.sum();
+    }
+
+    /** @return the number of reads of a clustered store which went to the cluster despite its near cache */
+    public long getNearCacheMisses() {
+        return nearCacheMisses.sum();
+    }
+}
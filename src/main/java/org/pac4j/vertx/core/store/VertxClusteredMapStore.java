@@ -2,62 +2,260 @@ package org.pac4j.vertx.core.store;
 
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.shareddata.AsyncMap;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.core.store.Store;
+import org.pac4j.vertx.core.BlockingFutures;
+import org.pac4j.vertx.core.DefaultJsonConverter;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 /**
  * Pac4j shared store implementation based on vert.x clustered shared data.
+ *
+ * <p>The {@link AsyncStore} methods should be preferred, the synchronous {@link Store} ones block the calling thread
+ * and cannot be used on an event loop.</p>
+ *
+ * <p>An optional near cache keeps recently read values on the node. Each write or removal is published on the event
+ * bus so that the near caches of the other stores drop the key, and cached values are re-read after a maximum
+ * staleness anyway. A value removed on another node can thus be read until the invalidation arrives: the stores of
+ * one-time values ({@link VertxMapStoreOptions#setOneTimeValues(boolean)}) never use the near cache.</p>
  */
-public class VertxClusteredMapStore<K, V> extends VertxMapStoreBase implements Store<K, V> {
+public class VertxClusteredMapStore<K, V> extends VertxMapStoreBase implements Store<K, V>, AsyncStore<K, V> {
+
+    private static final String INVALIDATION_ADDRESS_PREFIX = "pac4j.store.invalidate.";
+    private static final String ORIGIN_HEADER = "pac4j-store-origin";
 
     private final Vertx vertx;
     private final int blockingTimeoutSeconds;
+    private final long defaultTtlMillis;
+    private final String mapName;
+    private final StoreMetrics metrics;
+    private final Pac4jMetrics operationMetrics;
+
+    private final NearCache<K, V> nearCache;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final MessageConsumer<Object> invalidationConsumer;
+
+    private volatile Future<AsyncMap<K, V>> map;
 
     public VertxClusteredMapStore(final Vertx vertx) {
-        this(vertx, 1);
+        this(vertx, new VertxMapStoreOptions());
     }
 
     public VertxClusteredMapStore(final Vertx vertx, final int timeoutSeconds) {
+        this(vertx, new VertxMapStoreOptions().setBlockingTimeoutSeconds(timeoutSeconds));
+    }
+
+    public VertxClusteredMapStore(final Vertx vertx, final VertxMapStoreOptions options) {
         this.vertx = vertx;
-        this.blockingTimeoutSeconds = timeoutSeconds;
+        this.blockingTimeoutSeconds = options.getBlockingTimeoutSeconds();
+        this.defaultTtlMillis = options.getDefaultTtlMillis();
+        this.mapName = mapName(options.getNamespace());
+        this.metrics = metrics(vertx, mapName);
+        this.operationMetrics = Pac4jMetrics.of(vertx);
+        if (options.getNearCacheMaxEntries() > 0 && !options.isOneTimeValues()) {
+            this.nearCache = new NearCache<>(options.getNearCacheMaxEntries(), options.getNearCacheMaxStalenessMillis());
+            this.invalidationConsumer = vertx.eventBus().consumer(invalidationAddress(), this::onInvalidation);
+        } else {
+            this.nearCache = null;
+            this.invalidationConsumer = null;
+        }
+    }
+
+    private String invalidationAddress() {
+        return INVALIDATION_ADDRESS_PREFIX + mapName;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onInvalidation(final Message<Object> message) {
+        if (!instanceId.equals(message.headers().get(ORIGIN_HEADER))) {
+            nearCache.invalidate((K) DefaultJsonConverter.getInstance().decodeObject(message.body()));
+        }
+    }
+
+    /**
+     * Drop the key from the local near cache. Done both before a write, so that the caller reads its own write even
+     * before the completion callbacks have run, and after it, to discard reads which raced with it.
+     */
+    private void invalidateLocally(final K key) {
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    /** Drop the key from the local near cache and from the ones of the other stores. */
+    private void invalidate(final K key) {
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+            vertx.eventBus().publish(invalidationAddress(), DefaultJsonConverter.getInstance().encodeObject(key),
+                    new DeliveryOptions().addHeader(ORIGIN_HEADER, instanceId));
+        }
+    }
+
+    /** The async map is looked up once, and again only if that lookup failed. */
+    private Future<AsyncMap<K, V>> map() {
+        Future<AsyncMap<K, V>> current = map;
+        if (current == null || current.failed()) {
+            current = vertx.sharedData().getAsyncMap(mapName);
+            map = current;
+        }
+        return current;
+    }
+
+    private <T> Future<T> measured(final String operation, final Supplier<Future<T>> call) {
+        if (operationMetrics == Pac4jMetrics.NONE) {
+            return call.get();
+        }
+        final long start = System.nanoTime();
+        return call.get().andThen(ar ->
+                operationMetrics.storeOperation(mapName, operation, System.nanoTime() - start, ar.succeeded()));
+    }
+
+    @Override
+    public Future<Optional<V>> getAsync(final K key) {
+        if (nearCache == null) {
+            return measured("get", () -> map().compose(m -> m.get(key))).map(Optional::ofNullable);
+        }
+        final V cached = nearCache.get(key);
+        if (cached != null) {
+            metrics.nearCacheHit();
+            return Future.succeededFuture(Optional.of(cached));
+        }
+        metrics.nearCacheMiss();
+        final long version = nearCache.startRead(key);
+        return measured("get", () -> map().compose(m -> m.get(key)))
+                .andThen(ar -> nearCache.endRead(key, ar.succeeded() ? ar.result() : null, version))
+                .map(Optional::ofNullable);
+    }
+
+    @Override
+    public Future<Void> setAsync(final K key, final V value) {
+        return setAsync(key, value, defaultTtlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Future<Void> setAsync(final K key, final V value, final long ttl, final TimeUnit unit) {
+        final long ttlMillis = unit.toMillis(ttl);
+        invalidateLocally(key);
+        final Future<Void> put = measured("set", () -> ttlMillis > 0
+                ? map().compose(m -> m.put(key, value, ttlMillis))
+                : map().compose(m -> m.put(key, value)));
+        return put.onSuccess(v -> {
+            metrics.written();
+            invalidate(key);
+        });
+    }
+
+    @Override
+    public Future<Void> removeAsync(final K key) {
+        invalidateLocally(key);
+        return measured("remove", () -> map().compose(m -> m.remove(key))).onSuccess(v -> {
+            if (v != null) {
+                metrics.removed();
+            }
+            invalidate(key);
+        }).mapEmpty();
     }
 
     @Override
     public Optional<V> get(final K key) {
-        final AsyncMap<K, V> map = await(vertx.sharedData().<K, V>getAsyncMap(PAC4J_SHARED_DATA_KEY));
-        final V value = await(map.get(key));
-        return Optional.ofNullable(value);
+        return await(getAsync(key));
     }
 
     @Override
     public void set(final K key, final V value) {
-        final AsyncMap<K, V> map = await(vertx.sharedData().<K, V>getAsyncMap(PAC4J_SHARED_DATA_KEY));
-        await(map.put(key, value));
+        await(setAsync(key, value));
+    }
+
+    /**
+     * Set a value with its own time to live.
+     *
+     * @param key the key
+     * @param value the value
+     * @param ttl the time to live, 0 for no expiration
+     * @param unit the unit of the time to live
+     */
+    public void set(final K key, final V value, final long ttl, final TimeUnit unit) {
+        await(setAsync(key, value, ttl, unit));
     }
 
     @Override
     public void remove(final K key) {
-        final AsyncMap<K, V> map = await(vertx.sharedData().<K, V>getAsyncMap(PAC4J_SHARED_DATA_KEY));
-        await(map.remove(key));
+        await(removeAsync(key));
+    }
+
+    /**
+     * Get several values, with a single wait for all the pipelined reads.
+     *
+     * @param keys the keys
+     * @return the values of the keys which are present
+     */
+    public Map<K, V> getAll(final Collection<? extends K> keys) {
+        return await(getAllAsync(keys));
+    }
+
+    /**
+     * Set several values, with a single wait for all the pipelined writes.
+     *
+     * @param values the values by key
+     */
+    public void setAll(final Map<? extends K, ? extends V> values) {
+        await(setAllAsync(values));
+    }
+
+    /**
+     * Remove several keys, with a single wait for all the pipelined removals.
+     *
+     * @param keys the keys
+     */
+    public void removeAll(final Collection<? extends K> keys) {
+        await(removeAllAsync(keys));
+    }
+
+    /** @return the number of entries of the clustered map, as seen by the cluster manager */
+    public Future<Integer> sizeAsync() {
+        return map().compose(AsyncMap::size);
+    }
+
+    /** @return the number of entries of the near cache of this node */
+    public int nearCacheSize() {
+        return (nearCache != null) ? nearCache.size() : 0;
+    }
+
+    /** @return the metrics of the namespace of this store */
+    public StoreMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stop listening to the invalidations of the near cache, if enabled.
+     *
+     * @return the completion
+     */
+    public Future<Void> close() {
+        return (invalidationConsumer != null) ? invalidationConsumer.unregister() : Future.succeededFuture();
     }
 
     /** Helper: block on a Vert.x Future with a bounded timeout (Store API is sync). */
     private <T> T await(final Future<T> fut) {
         try {
-            return fut.toCompletionStage()
-                    .toCompletableFuture()
-                    .get(blockingTimeoutSeconds, TimeUnit.SECONDS);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
-            throw new TechnicalException(ie);
-        } catch (ExecutionException | TimeoutException e) {
-            throw new TechnicalException(e);
+            return BlockingFutures.await(fut, blockingTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TechnicalException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                operationMetrics.storeTimeout(mapName);
+            }
+            throw e;
         }
     }
 }
@@ -1,35 +1,333 @@
 package org.pac4j.vertx.core.store;
 
+import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
 import org.pac4j.core.store.Store;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of pac4j store based on vert.x LocalMap implementation. If the store is to be cluster-wide then
  * the clustered map implementation should be used instead.
+ *
+ * <p>Entries can expire (default or per key time to live) and the store can be bounded, in which case the least
+ * recently used entries are evicted. Expired entries are removed when read and by a sweep piggybacked on writes.
+ * Like a LocalMap does, byte arrays, buffers and JSON values are copied in and out of the store, other values are kept
+ * by reference. All the stores of a namespace should be created with the same options.</p>
  */
-public class VertxLocalMapStore<K, V> extends VertxMapStoreBase implements Store<K, V> {
+public class VertxLocalMapStore<K, V> extends VertxMapStoreBase implements Store<K, V>, AsyncStore<K, V> {
 
-    private final LocalMap<K, V> store;
+    /** Minimum delay between two sweeps of the expired entries. */
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final String ACCESS_ORDERS_MAP = "pac4j.store.accessOrders";
+
+    private final String mapName;
+    private final LocalMap<K, Entry<V>> store;
+    private final long defaultTtlMillis;
+    private final int maxEntries;
+    // the keys of a bounded store, least recently used first, shared by the stores of the namespace
+    private final AccessOrder<K> accessOrder;
+    private final StoreMetrics metrics;
+    private final Pac4jMetrics operationMetrics;
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
 
     public VertxLocalMapStore(final Vertx vertx) {
-        store = vertx.sharedData().getLocalMap(PAC4J_SHARED_DATA_KEY);
+        this(vertx, new VertxMapStoreOptions());
+    }
+
+    @SuppressWarnings("unchecked")
+    public VertxLocalMapStore(final Vertx vertx, final VertxMapStoreOptions options) {
+        mapName = mapName(options.getNamespace());
+        store = vertx.sharedData().getLocalMap(mapName);
+        metrics = metrics(vertx, mapName);
+        metrics.sizeSupplier(store::size);
+        operationMetrics = Pac4jMetrics.of(vertx);
+        defaultTtlMillis = options.getDefaultTtlMillis();
+        maxEntries = options.getMaxEntries();
+        if (maxEntries > 0) {
+            final LocalMap<String, AccessOrder<?>> orders = vertx.sharedData().getLocalMap(ACCESS_ORDERS_MAP);
+            accessOrder = (AccessOrder<K>) orders.computeIfAbsent(mapName, name -> new AccessOrder<>());
+        } else {
+            accessOrder = null;
+        }
     }
 
     @Override
     public Optional<V> get(K key) {
-        return Optional.ofNullable(store.get(key));
+        if (operationMetrics == Pac4jMetrics.NONE) {
+            return doGet(key);
+        }
+        final long start = System.nanoTime();
+        final Optional<V> value = doGet(key);
+        operationMetrics.storeOperation(mapName, "get", System.nanoTime() - start, true);
+        return value;
+    }
+
+    private Optional<V> doGet(K key) {
+        final Entry<V> entry = store.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (removeIfPresent(key, entry)) {
+                metrics.expired();
+            }
+            return Optional.empty();
+        }
+        if (accessOrder != null) {
+            accessOrder.touch(key);
+        }
+        return Optional.of(copy(entry.value));
     }
 
     @Override
     public void set(K key, V value) {
-        store.put(key, value);
+        set(key, value, defaultTtlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Set a value with its own time to live.
+     *
+     * @param key the key
+     * @param value the value
+     * @param ttl the time to live, 0 for no expiration
+     * @param unit the unit of the time to live
+     */
+    public void set(K key, V value, long ttl, TimeUnit unit) {
+        if (operationMetrics == Pac4jMetrics.NONE) {
+            doSet(key, value, ttl, unit);
+            return;
+        }
+        final long start = System.nanoTime();
+        doSet(key, value, ttl, unit);
+        operationMetrics.storeOperation(mapName, "set", System.nanoTime() - start, true);
+    }
+
+    private void doSet(K key, V value, long ttl, TimeUnit unit) {
+        final long now = System.currentTimeMillis();
+        final long ttlMillis = unit.toMillis(ttl);
+        final Entry<V> entry = new Entry<>(copy(value), ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE);
+        if (accessOrder == null) {
+            store.put(key, entry);
+        } else {
+            synchronized (accessOrder) {
+                store.put(key, entry);
+                accessOrder.touch(key);
+                evict();
+            }
+        }
+        metrics.written();
+        final long last = lastSweep.get();
+        if (now - last > SWEEP_INTERVAL_MILLIS && lastSweep.compareAndSet(last, now)) {
+            sweep(now);
+        }
     }
 
     @Override
     public void remove(K key) {
-        store.remove(key);
+        if (operationMetrics == Pac4jMetrics.NONE) {
+            doRemove(key);
+            return;
+        }
+        final long start = System.nanoTime();
+        doRemove(key);
+        operationMetrics.storeOperation(mapName, "remove", System.nanoTime() - start, true);
+    }
+
+    private void doRemove(K key) {
+        final Entry<V> removed;
+        if (accessOrder == null) {
+            removed = store.remove(key);
+        } else {
+            synchronized (accessOrder) {
+                removed = store.remove(key);
+                accessOrder.forget(key);
+            }
+        }
+        if (removed != null) {
+            metrics.removed();
+        }
+    }
+
+    /**
+     * Get several values.
+     *
+     * @param keys the keys
+     * @return the values of the keys which are present and not expired
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys) {
+        final Map<K, V> values = new LinkedHashMap<>();
+        for (final K key : keys) {
+            get(key).ifPresent(value -> values.put(key, value));
+        }
+        return values;
+    }
+
+    /**
+     * Set several values, with the default time to live.
+     *
+     * @param values the values by key
+     */
+    public void setAll(Map<? extends K, ? extends V> values) {
+        values.forEach(this::set);
+    }
+
+    /**
+     * Remove several keys.
+     *
+     * @param keys the keys
+     */
+    public void removeAll(Collection<? extends K> keys) {
+        keys.forEach(this::remove);
+    }
+
+    @Override
+    public Future<Optional<V>> getAsync(K key) {
+        return Future.succeededFuture(get(key));
+    }
+
+    @Override
+    public Future<Void> setAsync(K key, V value) {
+        set(key, value);
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<Void> setAsync(K key, V value, long ttl, TimeUnit unit) {
+        set(key, value, ttl, unit);
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<Void> removeAsync(K key) {
+        remove(key);
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<Map<K, V>> getAllAsync(Collection<? extends K> keys) {
+        return Future.succeededFuture(getAll(keys));
+    }
+
+    @Override
+    public Future<Void> setAllAsync(Map<? extends K, ? extends V> values) {
+        setAll(values);
+        return Future.succeededFuture();
+    }
+
+    @Override
+    public Future<Void> removeAllAsync(Collection<? extends K> keys) {
+        removeAll(keys);
+        return Future.succeededFuture();
+    }
+
+    /** @return the number of entries, including the expired ones not removed yet */
+    public int size() {
+        return store.size();
+    }
+
+    /** @return the metrics of the namespace of this store */
+    public StoreMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void sweep(final long now) {
+        for (final Map.Entry<K, Entry<V>> e : store.entrySet()) {
+            if (e.getValue().isExpired(now) && removeIfPresent(e.getKey(), e.getValue())) {
+                metrics.expired();
+            }
+        }
+    }
+
+    private boolean removeIfPresent(final K key, final Entry<V> entry) {
+        if (accessOrder == null) {
+            return store.removeIfPresent(key, entry);
+        }
+        synchronized (accessOrder) {
+            if (store.removeIfPresent(key, entry)) {
+                accessOrder.forget(key);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /** Drop the least recently used entries beyond the maximum size, called holding the access order lock. */
+    private void evict() {
+        while (store.size() > maxEntries) {
+            final K eldest = accessOrder.removeEldest();
+            if (eldest == null) {
+                return;
+            }
+            if (store.remove(eldest) != null) {
+                metrics.evicted();
+            }
+        }
+    }
+
+    /** The same copies as the ones made by a LocalMap, which does not copy the values wrapped in an entry. */
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(final T value) {
+        if (value instanceof byte[]) {
+            return (T) ((byte[]) value).clone();
+        } else if (value instanceof Buffer) {
+            return (T) ((Buffer) value).copy();
+        } else if (value instanceof JsonObject) {
+            return (T) ((JsonObject) value).copy();
+        } else if (value instanceof JsonArray) {
+            return (T) ((JsonArray) value).copy();
+        } else if (value instanceof Shareable) {
+            return (T) ((Shareable) value).copy();
+        }
+        return value;
+    }
+
+    /** The keys of a bounded store, in access order. Its monitor also guards the writes of the store. */
+    private static final class AccessOrder<K> implements Shareable {
+        private final LinkedHashMap<K, Boolean> keys = new LinkedHashMap<>(16, 0.75f, true);
+
+        private synchronized void touch(final K key) {
+            keys.put(key, Boolean.TRUE);
+        }
+
+        private synchronized void forget(final K key) {
+            keys.remove(key);
+        }
+
+        private synchronized K removeEldest() {
+            final Iterator<K> it = keys.keySet().iterator();
+            if (!it.hasNext()) {
+                return null;
+            }
+            final K eldest = it.next();
+            it.remove();
+            return eldest;
+        }
+    }
+
+    private static final class Entry<V> implements Shareable {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(final V value, final long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(final long now) {
+            return expiresAt <= now;
+        }
     }
 }
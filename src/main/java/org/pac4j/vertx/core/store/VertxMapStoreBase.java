@@ -1,8 +1,48 @@
 package org.pac4j.vertx.core.store;
 
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+
+import java.util.Map;
+import java.util.TreeMap;
+
 /**
- *
+ * Naming of the shared data maps behind the pac4j stores, and their metrics.
  */
 public class VertxMapStoreBase {
     public static final String PAC4J_SHARED_DATA_KEY = "pac4jSharedData";
+
+    private static final String METRICS_KEY = "pac4jStoreMetrics";
+
+    /**
+     * Name of the shared data map of a namespace. Stores without a namespace all share the historical
+     * {@link #PAC4J_SHARED_DATA_KEY} map.
+     *
+     * @param namespace the namespace, may be null
+     * @return the map name
+     */
+    public static String mapName(final String namespace) {
+        return (namespace == null || namespace.isEmpty())
+                ? PAC4J_SHARED_DATA_KEY
+                : PAC4J_SHARED_DATA_KEY + "." + namespace;
+    }
+
+    /**
+     * The metrics of all the stores created on a Vert.x instance, by map name, to spot which purpose is growing.
+     *
+     * @param vertx the Vert.x instance
+     * @return a snapshot of the metrics by map name
+     */
+    public static Map<String, StoreMetrics> metrics(final Vertx vertx) {
+        return new TreeMap<>(metricsMap(vertx));
+    }
+
+    /** Stores of the same namespace on the same Vert.x instance share their metrics. */
+    static StoreMetrics metrics(final Vertx vertx, final String mapName) {
+        return metricsMap(vertx).computeIfAbsent(mapName, StoreMetrics::new);
+    }
+
+    private static LocalMap<String, StoreMetrics> metricsMap(final Vertx vertx) {
+        return vertx.sharedData().getLocalMap(METRICS_KEY);
+    }
 }
@@ -0,0 +1,66 @@
+package org.pac4j.vertx.core.store;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+/**
+ * Vert.x-style options class for the pac4j map stores.
+ *
+ * @since 7.0.4
+ */
+@Accessors(chain = true)
+public class VertxMapStoreOptions {
+
+    /**
+     * Namespace of the store, e.g. one per client and purpose ("oidc-state", "saml-messages"...), each getting its own
+     * shared data map. By default all the stores share the historical single map.
+     */
+    @Getter @Setter
+    private String namespace = null;
+
+    /**
+     * Time to live of the entries set without an explicit one, in milliseconds. 0, the default, means they never
+     * expire.
+     */
+    @Getter @Setter
+    private long defaultTtlMillis = 0;
+
+    /**
+     * Maximum number of entries of a local store, beyond which the least recently used ones are evicted. 0, the
+     * default, means unbounded. Clustered stores are bounded by the configuration of the cluster manager.
+     */
+    @Getter @Setter
+    private int maxEntries = 0;
+
+    /**
+     * How long the synchronous methods of a clustered store wait for the cluster, in seconds.
+     */
+    @Getter @Setter
+    private int blockingTimeoutSeconds = 1;
+
+    /**
+     * Maximum number of entries of the per-node cache in front of a clustered store. 0, the default, disables it.
+     * Writes and removals are broadcast over the event bus to invalidate the other nodes' caches: until the
+     * invalidation arrives, a value removed on another node can still be read here. This is unsafe for the stores of
+     * one-time values, see {@link #setOneTimeValues(boolean)}.
+     */
+    @Getter @Setter
+    private int nearCacheMaxEntries = 0;
+
+    /**
+     * How long a value can be served from the near cache before being read again from the cluster, in milliseconds.
+     * This bounds the staleness should an invalidation message be lost.
+     */
+    @Getter @Setter
+    private long nearCacheMaxStalenessMillis = 5000;
+
+    /**
+     * Whether the values of the store must be read at most once, e.g. OIDC states and nonces or SAML message ids,
+     * whose removal protects against replays. Such a store never uses the near cache, whatever
+     * {@link #getNearCacheMaxEntries()}: its values are always read from the cluster, so a removal is seen by all the
+     * nodes as soon as it completes.
+     */
+    @Getter @Setter
+    private boolean oneTimeValues = false;
+}
@@ -1,5 +1,6 @@
 package org.pac4j.vertx.handler.impl;
 
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.RoutingContext;
@@ -10,7 +11,11 @@ import org.pac4j.core.context.session.SessionStore;
 import org.pac4j.core.engine.CallbackLogic;
 import org.pac4j.core.engine.DefaultCallbackLogic;
 import org.pac4j.core.exception.TechnicalException;
+import org.pac4j.core.util.Pac4jConstants;
 import org.pac4j.vertx.VertxFrameworkParameters;
+import org.pac4j.vertx.context.session.VertxSessionStore;
+import org.pac4j.vertx.http.VertxHttpActionAdapter;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -26,6 +31,8 @@ public class CallbackHandler implements Handler<RoutingContext> {
     private static final Logger LOG = LoggerFactory.getLogger(CallbackHandler.class);
 
     private final Vertx vertx;
+    private final HandlerExecutor executor;
+    private final Pac4jMetrics metrics;
     private final SessionStore sessionStore;
     private final Config config;
 
@@ -44,33 +51,89 @@ public class CallbackHandler implements Handler<RoutingContext> {
         this.defaultUrl = options.getDefaultUrl();
         this.renewSession = options.getRenewSession();
         this.defaultClient = options.getDefaultClient();
+        this.metrics = Pac4jMetrics.of(vertx);
+        this.executor = new HandlerExecutor(vertx, options.getExecutionMode(), options.getWorkerExecutor(),
+                options.getWorkerPool(), options.isOrderedExecution());
     }
 
     @Override
     public void handle(final RoutingContext rc) {
+        if (sessionStore instanceof VertxSessionStore) {
+            // so that the callback logic does not block on a store holding the profiles
+            ((VertxSessionStore) sessionStore).prefetchProfiles(rc).onComplete(ar -> {
+                if (ar.failed()) {
+                    rc.fail(ar.cause());
+                } else {
+                    callback(rc);
+                }
+            });
+        } else {
+            callback(rc);
+        }
+    }
+
+    private void callback(final RoutingContext rc) {
 
         FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
 
         val callbackLogic = config.getCallbackLogic();
+        final long start = System.nanoTime();
+        if (sessionStore instanceof VertxSessionStore) {
+            // the redirection is only sent once the new profiles are written to the session
+            VertxHttpActionAdapter.defer(rc);
+        }
 
-        vertx.<Void>executeBlocking(() -> {
-                            callbackLogic.perform(
-                                    config,
-                                    defaultUrl,
-                                    renewSession,
-                                    defaultClient,
-                                    new VertxFrameworkParameters(rc)
-                            );
-                            return null;
-                        },
-                        false
-                )
+        executor.<Void>execute(() -> {
+                    callbackLogic.perform(
+                            config,
+                            defaultUrl,
+                            renewSession,
+                            defaultClient,
+                            new VertxFrameworkParameters(rc)
+                    );
+                    return null;
+                })
                 .onComplete(ar -> {
+                    if (metrics != Pac4jMetrics.NONE) {
+                        metrics.callback(clientName(rc), System.nanoTime() - start, ar.succeeded());
+                    }
                     if (ar.failed()) {
                         rc.fail(new TechnicalException(ar.cause()));
+                    } else if (sessionStore instanceof VertxSessionStore) {
+                        ((VertxSessionStore) sessionStore).flushProfiles(rc).onComplete(flushed -> {
+                            if (flushed.failed()) {
+                                rc.fail(new TechnicalException(flushed.cause()));
+                            } else {
+                                LOG.debug("Callback handled for {}", rc.request().path());
+                                VertxHttpActionAdapter.completeDeferred(rc);
+                            }
+                        });
                     } else {
                         LOG.debug("Callback handled for {}", rc.request().path());
                     }
                 });
     }
+
+    /**
+     * The client of the callback, as a metric tag: only the names of the configured clients are kept.
+     */
+    private String clientName(final RoutingContext rc) {
+        String name = rc.request().getParam(Pac4jConstants.DEFAULT_CLIENT_NAME_PARAMETER);
+        if (name == null) {
+            name = defaultClient;
+        }
+        if (name != null && config.getClients() != null && config.getClients().findClient(name).isPresent()) {
+            return name;
+        }
+        return "unknown";
+    }
+
+    /**
+     * Release the dedicated worker pool of this handler, if any, e.g. when undeploying the verticle which created it.
+     *
+     * @return the completion
+     */
+    public Future<Void> close() {
+        return executor.close();
+    }
 }
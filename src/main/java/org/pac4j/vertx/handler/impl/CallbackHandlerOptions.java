@@ -15,7 +15,9 @@
  */
 package org.pac4j.vertx.handler.impl;
 
+import io.vertx.core.WorkerExecutor;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
@@ -40,4 +42,30 @@ public class CallbackHandlerOptions {
 
     @Getter @Setter
     private String defaultClient;
+
+    /**
+     * Where the blocking callback logic runs, {@link ExecutionMode#VIRTUAL_THREAD} requires JDK 21+.
+     */
+    @Getter @Setter @NonNull
+    private ExecutionMode executionMode = ExecutionMode.WORKER;
+
+    /**
+     * Worker executor running the blocking callback logic. Takes precedence over {@link #workerPool}, whose name
+     * is then only used to measure it.
+     */
+    @Getter @Setter
+    private WorkerExecutor workerExecutor = null;
+
+    /**
+     * Dedicated worker pool created for the blocking callback logic, the default Vert.x worker pool is used if none.
+     * It is released by closing the handler.
+     */
+    @Getter @Setter
+    private WorkerPoolOptions workerPool = null;
+
+    /**
+     * True if the callback tasks of a same context are run one after another.
+     */
+    @Getter @Setter
+    private boolean orderedExecution = false;
 }
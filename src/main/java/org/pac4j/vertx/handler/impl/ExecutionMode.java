@@ -0,0 +1,25 @@
+package org.pac4j.vertx.handler.impl;
+
+/**
+ * Where a handler runs the (potentially blocking) pac4j logic.
+ *
+ * @since 7.0.4
+ */
+public enum ExecutionMode {
+
+    /**
+     * Run directly on the calling event loop. Only suitable for clients which never block, e.g. header clients
+     * validating their credentials in memory.
+     */
+    INLINE,
+
+    /**
+     * Run on the Vert.x worker pool through <code>executeBlocking</code>.
+     */
+    WORKER,
+
+    /**
+     * Run on a virtual thread, requires a JDK with virtual thread support (21+).
+     */
+    VIRTUAL_THREAD
+}
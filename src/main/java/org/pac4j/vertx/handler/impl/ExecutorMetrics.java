@@ -0,0 +1,81 @@
+package org.pac4j.vertx.handler.impl;
+
+import io.vertx.core.shareddata.Shareable;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the blocking pac4j tasks run on a pool.
+ *
+ * @since 7.0.4
+ */
+public class ExecutorMetrics implements Shareable {
+
+    /** Name of the pool. */
+    @Getter
+    private final String poolName;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    ExecutorMetrics(final String poolName) {
+        this.poolName = poolName;
+    }
+
+    void submitted() {
+        submitted.increment();
+        queued.incrementAndGet();
+    }
+
+    void started(final long waitedNanos) {
+        queued.decrementAndGet();
+        running.incrementAndGet();
+        waitNanos.add(waitedNanos);
+        maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+    }
+
+    void finished() {
+        running.decrementAndGet();
+        completed.increment();
+    }
+
+    /** @return the number of tasks waiting for a thread */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getRunning() {
+        return running.get();
+    }
+
+    public long getSubmitted() {
+        return submitted.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /** @return the cumulated time the started tasks waited for a thread */
+    public long getTotalWaitNanos() {
+        return waitNanos.sum();
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorMetrics{poolName=" + poolName + ", queued=" + getQueued() + ", running=" + getRunning()
+                + ", submitted=" + getSubmitted() + ", completed=" + getCompleted()
+                + ", totalWaitNanos=" + getTotalWaitNanos() + ", maxWaitNanos=" + getMaxWaitNanos() + "}";
+    }
+}
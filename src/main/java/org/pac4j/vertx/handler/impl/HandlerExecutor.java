@@ -0,0 +1,176 @@
+package org.pac4j.vertx.handler.impl;
+
+import io.vertx.core.Context;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.shareddata.LocalMap;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the blocking pac4j logic of a handler according to its execution mode, on the default Vert.x worker pool, a
+ * dedicated worker pool or a virtual thread. The returned futures complete on the calling context.
+ *
+ * @since 7.0.4
+ */
+public class HandlerExecutor {
+
+    /** Name under which the tasks run on the default Vert.x worker pool are measured. */
+    public static final String DEFAULT_POOL_NAME = "vert.x-worker-thread";
+
+    /** Name under which the tasks run on virtual threads are measured. */
+    public static final String VIRTUAL_THREAD_POOL_NAME = "vert.x-virtual-thread";
+
+    /** Prefix of the name under which the tasks run on a given worker executor without pool options are measured. */
+    public static final String WORKER_EXECUTOR_POOL_NAME_PREFIX = "worker-executor@";
+
+    private static final String METRICS_MAP_NAME = "pac4jExecutorMetrics";
+
+    private final Vertx vertx;
+    private final ExecutionMode mode;
+    private final WorkerExecutor workerExecutor;
+    /** Whether the worker executor was created by this executor, and must be closed by it. */
+    private final boolean ownsWorkerExecutor;
+    /** The deployment providing the virtual thread context, and that context. */
+    private final Future<String> virtualThreadDeployment;
+    private final Future<Context> virtualThreadContext;
+    private final boolean ordered;
+    private final ExecutorMetrics metrics;
+    private final Pac4jMetrics pac4jMetrics;
+
+    /**
+     * @param vertx the vertx API
+     * @param mode the execution mode
+     * @param workerExecutor the worker executor to use in {@link ExecutionMode#WORKER} mode, if any, measured under the
+     *                       name of the worker pool options if given, otherwise under a name derived from it
+     * @param workerPool the options of a shared worker pool to create if no worker executor is given, if any
+     * @param ordered whether the tasks of a same context, or of this executor on virtual threads, run one after
+     *                another
+     */
+    public HandlerExecutor(final Vertx vertx, final ExecutionMode mode, final WorkerExecutor workerExecutor,
+                           final WorkerPoolOptions workerPool, final boolean ordered) {
+        this.vertx = Objects.requireNonNull(vertx, "vertx");
+        this.mode = Objects.requireNonNull(mode, "mode");
+        this.ordered = ordered;
+        if (mode == ExecutionMode.VIRTUAL_THREAD && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads are not available on this JDK, use JDK 21+ or another execution mode");
+        }
+        final String poolName;
+        Future<String> deployment = null;
+        Future<Context> context = null;
+        if (mode == ExecutionMode.VIRTUAL_THREAD) {
+            this.workerExecutor = null;
+            this.ownsWorkerExecutor = false;
+            // the context of an empty virtual thread deployment, whose blocking tasks each run on a new virtual thread
+            final Promise<Context> deployed = Promise.promise();
+            deployment = vertx.deployVerticle(ctx -> {
+                deployed.tryComplete(ctx);
+                return Future.succeededFuture();
+            }, new DeploymentOptions().setThreadingModel(ThreadingModel.VIRTUAL_THREAD));
+            deployment.onFailure(deployed::tryFail);
+            context = deployed.future();
+            poolName = VIRTUAL_THREAD_POOL_NAME;
+        } else if (workerExecutor != null) {
+            this.workerExecutor = workerExecutor;
+            this.ownsWorkerExecutor = false;
+            poolName = workerPool != null ? workerPool.getName()
+                    : WORKER_EXECUTOR_POOL_NAME_PREFIX + Integer.toHexString(System.identityHashCode(workerExecutor));
+        } else if (workerPool != null) {
+            this.workerExecutor = vertx.createSharedWorkerExecutor(workerPool.getName(), workerPool.getPoolSize(),
+                    workerPool.getMaxExecuteTime(), workerPool.getMaxExecuteTimeUnit());
+            this.ownsWorkerExecutor = true;
+            poolName = workerPool.getName();
+        } else {
+            this.workerExecutor = null;
+            this.ownsWorkerExecutor = false;
+            poolName = DEFAULT_POOL_NAME;
+        }
+        this.virtualThreadDeployment = deployment;
+        this.virtualThreadContext = context;
+        final LocalMap<String, ExecutorMetrics> all = vertx.sharedData().getLocalMap(METRICS_MAP_NAME);
+        this.metrics = all.computeIfAbsent(poolName, ExecutorMetrics::new);
+        this.pac4jMetrics = Pac4jMetrics.of(vertx);
+    }
+
+    /**
+     * @param vertx the vertx API
+     * @return a snapshot of the metrics of the pools used by the pac4j handlers, by pool name
+     */
+    public static Map<String, ExecutorMetrics> metrics(final Vertx vertx) {
+        final LocalMap<String, ExecutorMetrics> all = vertx.sharedData().getLocalMap(METRICS_MAP_NAME);
+        return new TreeMap<>(all);
+    }
+
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    public <T> Future<T> execute(final Callable<T> task) {
+        if (mode == ExecutionMode.INLINE) {
+            try {
+                return Future.succeededFuture(task.call());
+            } catch (Throwable t) {
+                return Future.failedFuture(t);
+            }
+        }
+        final long submittedAt = System.nanoTime();
+        metrics.submitted();
+        final Callable<T> measured = () -> {
+            final long waited = System.nanoTime() - submittedAt;
+            metrics.started(waited);
+            pac4jMetrics.executorWait(metrics.getPoolName(), waited);
+            try {
+                return task.call();
+            } finally {
+                metrics.finished();
+            }
+        };
+        if (mode == ExecutionMode.VIRTUAL_THREAD) {
+            return executeOnVirtualThread(measured);
+        } else if (workerExecutor != null) {
+            return workerExecutor.executeBlocking(measured, ordered);
+        } else {
+            return vertx.executeBlocking(measured, ordered);
+        }
+    }
+
+    /**
+     * Release the shared worker pool created for this executor, which is closed once all the executors sharing it are
+     * closed, or the deployment providing its virtual threads. A given worker executor is left to its owner.
+     *
+     * @return the completion
+     */
+    public Future<Void> close() {
+        if (virtualThreadDeployment != null) {
+            return virtualThreadDeployment.transform(ar ->
+                    ar.succeeded() ? vertx.undeploy(ar.result()) : Future.succeededFuture());
+        }
+        return ownsWorkerExecutor ? workerExecutor.close() : Future.succeededFuture();
+    }
+
+    private <T> Future<T> executeOnVirtualThread(final Callable<T> task) {
+        final Context origin = vertx.getOrCreateContext();
+        final Promise<T> promise = Promise.promise();
+        final Future<T> result = virtualThreadContext.compose(context -> context.executeBlocking(task, ordered));
+        result.onComplete(ar -> origin.runOnContext(v -> {
+            if (ar.succeeded()) {
+                promise.complete(ar.result());
+            } else {
+                promise.fail(ar.cause());
+            }
+        }));
+        return promise.future();
+    }
+}
@@ -0,0 +1,124 @@
+package org.pac4j.vertx.handler.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Run logout targets concurrently, with at most a given number of them in flight and a timeout for each of them, so
+ * that logging out many sessions or relying parties takes about the time of the slowest one. The fan-out never fails,
+ * the failures are reported in the {@link LogoutSummary}, by target name: the names of the targets of a run must be
+ * unique.
+ *
+ * @since 7.0.4
+ */
+public class LogoutFanOut {
+
+    private final Vertx vertx;
+    private final int maxConcurrency;
+    private final long targetTimeoutMillis;
+
+    public LogoutFanOut(final Vertx vertx, final int maxConcurrency, final long targetTimeoutMillis) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (targetTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("targetTimeoutMillis must be positive");
+        }
+        this.vertx = vertx;
+        this.maxConcurrency = maxConcurrency;
+        this.targetTimeoutMillis = targetTimeoutMillis;
+    }
+
+    /**
+     * @param targets the targets to log out
+     * @return the outcome of the targets
+     * @throws IllegalArgumentException if several targets have the same name
+     */
+    public Future<LogoutSummary> run(final List<LogoutTarget> targets) {
+        checkNames(targets);
+        return new Run(new ArrayList<>(targets)).start();
+    }
+
+    static void checkNames(final List<LogoutTarget> targets) {
+        final Set<String> names = new HashSet<>();
+        for (final LogoutTarget target : targets) {
+            if (!names.add(target.name())) {
+                throw new IllegalArgumentException("Duplicate logout target name: " + target.name());
+            }
+        }
+    }
+
+    private final class Run {
+        private final List<LogoutTarget> targets;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final List<String> succeeded = new ArrayList<>();
+        private final Map<String, Throwable> failed = new LinkedHashMap<>();
+        private final Promise<LogoutSummary> promise = Promise.promise();
+
+        private Run(final List<LogoutTarget> targets) {
+            this.targets = targets;
+            this.remaining = new AtomicInteger(targets.size());
+        }
+
+        private Future<LogoutSummary> start() {
+            if (targets.isEmpty()) {
+                promise.complete(new LogoutSummary(succeeded, failed));
+            }
+            for (int i = 0; i < Math.min(maxConcurrency, targets.size()); i++) {
+                launchNext();
+            }
+            return promise.future();
+        }
+
+        private void launchNext() {
+            final int index = next.getAndIncrement();
+            if (index >= targets.size()) {
+                return;
+            }
+            final LogoutTarget target = targets.get(index);
+            final Promise<Void> done = Promise.promise();
+            final long timer = vertx.setTimer(targetTimeoutMillis, id -> done.tryFail(
+                    new TimeoutException("Logout of " + target.name() + " timed out after "
+                            + targetTimeoutMillis + " ms")));
+            try {
+                target.logout().onComplete(ar -> {
+                    if (ar.succeeded()) {
+                        done.tryComplete();
+                    } else {
+                        done.tryFail(ar.cause());
+                    }
+                });
+            } catch (RuntimeException e) {
+                done.tryFail(e);
+            }
+            done.future().onComplete(ar -> {
+                vertx.cancelTimer(timer);
+                synchronized (this) {
+                    if (ar.succeeded()) {
+                        succeeded.add(target.name());
+                    } else {
+                        failed.put(target.name(), ar.cause());
+                    }
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    synchronized (this) {
+                        promise.complete(new LogoutSummary(new ArrayList<>(succeeded), failed));
+                    }
+                } else {
+                    launchNext();
+                }
+            });
+        }
+    }
+}
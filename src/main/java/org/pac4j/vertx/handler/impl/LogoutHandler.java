@@ -1,5 +1,6 @@
 package org.pac4j.vertx.handler.impl;
 
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.RoutingContext;
@@ -15,7 +16,14 @@ import org.pac4j.core.http.adapter.HttpActionAdapter;
 
 import org.pac4j.vertx.VertxFrameworkParameters;
 import org.pac4j.vertx.VertxWebContext;
+import org.pac4j.vertx.auth.CredentialsCache;
+import org.pac4j.vertx.auth.Pac4jUser;
+import org.pac4j.vertx.context.session.VertxSessionStore;
 import org.pac4j.vertx.http.VertxHttpActionAdapter;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
+
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Implementation of a handler for handling pac4j user logout
@@ -30,10 +38,16 @@ public class LogoutHandler implements Handler<RoutingContext> {
     private final Config config;
 
     private final Vertx vertx;
+    private final HandlerExecutor executor;
+    private final Pac4jMetrics metrics;
     private final SessionStore sessionStore;
     private final boolean localLogout;
     private final boolean destroySession;
     private final boolean centralLogout;
+    private final CredentialsCache credentialsCache;
+    private final Function<RoutingContext, List<LogoutTarget>> logoutTargets;
+    private final LogoutFanOut logoutFanOut;
+    private final Handler<LogoutSummary> logoutSummaryHandler;
 
     /**
      * Construct based on the option values provided
@@ -56,16 +70,60 @@ public class LogoutHandler implements Handler<RoutingContext> {
         this.localLogout = options.isLocalLogout();
         this.destroySession = options.isDestroySession();
         this.centralLogout = options.isCentralLogout();
+        this.credentialsCache = options.getCredentialsCache();
+        this.logoutTargets = options.getLogoutTargets();
+        this.logoutFanOut = logoutTargets != null
+                ? new LogoutFanOut(vertx, options.getMaxConcurrentLogouts(), options.getLogoutTargetTimeoutMillis())
+                : null;
+        this.logoutSummaryHandler = options.getLogoutSummaryHandler();
+        this.metrics = Pac4jMetrics.of(vertx);
+        this.executor = new HandlerExecutor(vertx, options.getExecutionMode(), options.getWorkerExecutor(),
+                options.getWorkerPool(), options.isOrderedExecution());
     }
 
     @Override
     public void handle(final RoutingContext rc) {
+        if (sessionStore instanceof VertxSessionStore) {
+            // so that the logout logic does not block on a store holding the profiles
+            ((VertxSessionStore) sessionStore).prefetchProfiles(rc).onComplete(ar -> {
+                if (ar.failed()) {
+                    rc.fail(ar.cause());
+                } else {
+                    logout(rc);
+                }
+            });
+        } else {
+            logout(rc);
+        }
+    }
+
+    private void logout(final RoutingContext rc) {
 
         FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
 
         val logoutLogic = config.getLogoutLogic();
 
-        vertx.<Void>executeBlocking(() -> {
+        final List<LogoutTarget> targets;
+        if (logoutTargets != null) {
+            // resolved before the logout logic removes the profiles
+            try {
+                targets = logoutTargets.apply(rc);
+                LogoutFanOut.checkNames(targets);
+            } catch (RuntimeException e) {
+                rc.fail(new TechnicalException(e));
+                return;
+            }
+            // the response is only sent once the targets are logged out too
+            VertxHttpActionAdapter.defer(rc);
+        } else {
+            targets = null;
+        }
+
+        final long start = System.nanoTime();
+        executor.<Void>execute(() -> {
+            if (credentialsCache != null && rc.user() instanceof Pac4jUser) {
+                ((Pac4jUser) rc.user()).profiles().forEach(credentialsCache::invalidate);
+            }
             logoutLogic.perform(
                     config,
                     defaultUrl,
@@ -77,11 +135,29 @@ public class LogoutHandler implements Handler<RoutingContext> {
             );
             return null;
         }).onComplete(ar -> {
+            metrics.logout(System.nanoTime() - start, ar.succeeded());
             if (ar.failed()) {
                 rc.fail(new TechnicalException(ar.cause()));
-            } else {
-                // do nothing
+            } else if (targets != null) {
+                logoutFanOut.run(targets).onComplete(summary -> {
+                    try {
+                        if (logoutSummaryHandler != null) {
+                            logoutSummaryHandler.handle(summary.result());
+                        }
+                    } finally {
+                        VertxHttpActionAdapter.completeDeferred(rc);
+                    }
+                });
             }
         });
     }
+
+    /**
+     * Release the dedicated worker pool of this handler, if any, e.g. when undeploying the verticle which created it.
+     *
+     * @return the completion
+     */
+    public Future<Void> close() {
+        return executor.close();
+    }
 }
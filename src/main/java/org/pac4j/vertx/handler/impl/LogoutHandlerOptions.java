@@ -15,9 +15,17 @@
  */
 package org.pac4j.vertx.handler.impl;
 
+import io.vertx.core.Handler;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.ext.web.RoutingContext;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.pac4j.vertx.auth.CredentialsCache;
+
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Class with fluent API to wrap options which can be supplied to LogoutHandler. This approach is consistent
@@ -54,4 +62,62 @@ public class LogoutHandlerOptions {
      */
     @Getter @Setter
     private boolean centralLogout= false;
+
+    /**
+     * The credentials cache of the clients, if any, so that the profiles logged out are no longer served from it.
+     */
+    @Getter @Setter
+    private CredentialsCache credentialsCache = null;
+
+    /**
+     * Additional logout operations, e.g. destroying the other sessions of the user or notifying relying parties. They
+     * are resolved before the pac4j logout logic and run concurrently once it has succeeded, see {@link LogoutFanOut}.
+     * Their names must be unique, the request fails otherwise.
+     * The response of the logout logic is only sent after them, which requires the {@link
+     * org.pac4j.vertx.http.VertxHttpActionAdapter}. The sessions logged out by an identity provider are destroyed
+     * the same way by a {@link VertxSessionLogoutHandler}.
+     */
+    @Getter @Setter
+    private Function<RoutingContext, List<LogoutTarget>> logoutTargets = null;
+
+    /** Maximum number of logout targets in flight at the same time. */
+    @Getter @Setter
+    private int maxConcurrentLogouts = 8;
+
+    /** Time after which a logout target is reported as failed. */
+    @Getter @Setter
+    private long logoutTargetTimeoutMillis = 5000;
+
+    /**
+     * Receives the outcome of the logout targets, once they have all completed or timed out and before the response
+     * is sent.
+     */
+    @Getter @Setter
+    private Handler<LogoutSummary> logoutSummaryHandler = null;
+
+    /**
+     * Where the blocking logout logic runs, {@link ExecutionMode#VIRTUAL_THREAD} requires JDK 21+.
+     */
+    @Getter @Setter @NonNull
+    private ExecutionMode executionMode = ExecutionMode.WORKER;
+
+    /**
+     * Worker executor running the blocking logout logic. Takes precedence over {@link #workerPool}, whose name
+     * is then only used to measure it.
+     */
+    @Getter @Setter
+    private WorkerExecutor workerExecutor = null;
+
+    /**
+     * Dedicated worker pool created for the blocking logout logic, the default Vert.x worker pool is used if none.
+     * It is released by closing the handler.
+     */
+    @Getter @Setter
+    private WorkerPoolOptions workerPool = null;
+
+    /**
+     * True if the logout tasks of a same context are run one after another.
+     */
+    @Getter @Setter
+    private boolean orderedExecution = true;
 }
@@ -0,0 +1,41 @@
+package org.pac4j.vertx.handler.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a logout fan-out.
+ *
+ * @since 7.0.4
+ */
+public final class LogoutSummary {
+
+    private final List<String> succeeded;
+    private final Map<String, Throwable> failed;
+
+    LogoutSummary(final List<String> succeeded, final Map<String, Throwable> failed) {
+        this.succeeded = Collections.unmodifiableList(succeeded);
+        this.failed = Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+    }
+
+    /** @return the names of the targets logged out */
+    public List<String> getSucceeded() {
+        return succeeded;
+    }
+
+    /** @return the causes of the failures, timeouts included, by target name */
+    public Map<String, Throwable> getFailed() {
+        return failed;
+    }
+
+    public boolean isSuccess() {
+        return failed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "LogoutSummary{succeeded=" + succeeded.size() + ", failed=" + failed.keySet() + "}";
+    }
+}
@@ -0,0 +1,45 @@
+package org.pac4j.vertx.handler.impl;
+
+import io.vertx.core.Future;
+import io.vertx.ext.web.sstore.SessionStore;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * One operation of a logout fan-out, e.g. the destruction of a session or the notification of a relying party.
+ *
+ * @since 7.0.4
+ */
+public interface LogoutTarget {
+
+    /** @return the name of the target, as reported in the {@link LogoutSummary} */
+    String name();
+
+    /** @return the completion of the logout of this target */
+    Future<Void> logout();
+
+    static LogoutTarget of(final String name, final Supplier<Future<Void>> logout) {
+        Objects.requireNonNull(logout, "logout");
+        return new LogoutTarget() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public Future<Void> logout() {
+                return logout.get();
+            }
+        };
+    }
+
+    /**
+     * @param sessionStore the Vert.x session store
+     * @param sessionId the id of the session to destroy
+     * @return the target destroying the session
+     */
+    static LogoutTarget destroySession(final SessionStore sessionStore, final String sessionId) {
+        return of("session:" + sessionId, () -> sessionStore.delete(sessionId));
+    }
+}
@@ -3,17 +3,15 @@ package org.pac4j.vertx.handler.impl;
 import io.vertx.core.Vertx;
 import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.AuthenticationHandler;
-import io.vertx.ext.web.impl.UserContextInternal;
 import lombok.val;
 import org.pac4j.core.adapter.FrameworkAdapter;
 import org.pac4j.core.config.Config;
-import org.pac4j.core.context.WebContext;
 import org.pac4j.core.engine.*;
-import org.pac4j.core.http.adapter.HttpActionAdapter;
+import org.pac4j.core.util.Pac4jConstants;
 import org.pac4j.vertx.VertxFrameworkParameters;
 import org.pac4j.vertx.VertxWebContext;
-import org.pac4j.vertx.auth.Pac4jUser;
 import org.pac4j.vertx.context.session.VertxSessionStore;
+import org.pac4j.vertx.metrics.Pac4jMetrics;
 
 import java.util.Objects;
 
@@ -23,10 +21,17 @@ import java.util.Objects;
  */
 public class SecurityHandler implements AuthenticationHandler {
 
+    /** Returned by the granted access adapter so that ctx.next() is called back on the original context. */
+    private static final Object ACCESS_GRANTED = new Object();
+
     private final Vertx vertx;
     private final VertxSessionStore sessionStore;
     private final Config config;
     private final SecurityHandlerOptions options;
+    private final ExecutionMode executionMode;
+    /** Null when the security logic runs inline. */
+    private final HandlerExecutor executor;
+    private final Pac4jMetrics metrics;
 
     public SecurityHandler(final Vertx vertx,
                            final VertxSessionStore sessionStore,
@@ -36,25 +41,119 @@ public class SecurityHandler implements AuthenticationHandler {
         this.sessionStore = Objects.requireNonNull(sessionStore, "sessionStore");
         this.config = Objects.requireNonNull(config, "config");
         this.options = Objects.requireNonNull(options, "options");
+        this.executionMode = executionMode(options);
+        this.executor = (executionMode != ExecutionMode.INLINE)
+                ? new HandlerExecutor(vertx, executionMode, null, null, false) : null;
+        this.metrics = Pac4jMetrics.of(vertx);
+    }
+
+    /**
+     * The execution mode of the handler, from the configuration only: the mode of its clients, or if they differ,
+     * the mode of the first client which does not run inline, so that a client which may block never runs on the
+     * event loop.
+     */
+    static ExecutionMode executionMode(final SecurityHandlerOptions options) {
+        ExecutionMode mode = null;
+        for (final String name : options.getClients().split(Pac4jConstants.ELEMENT_SEPARATOR)) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            final ExecutionMode clientMode =
+                    options.getClientExecutionModes().getOrDefault(name.trim(), options.getExecutionMode());
+            if (mode == null || mode == ExecutionMode.INLINE) {
+                mode = clientMode;
+            }
+        }
+        return (mode != null) ? mode : options.getExecutionMode();
+    }
+
+    /** @return the execution mode of the security logic */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
     }
 
     @Override
     public void handle(final RoutingContext ctx) {
+        // so that the security logic does not block on a store holding the profiles
+        sessionStore.prefetchProfiles(ctx).onComplete(ar -> {
+            if (ar.failed()) {
+                ctx.fail(ar.cause());
+            } else {
+                secure(ctx);
+            }
+        });
+    }
+
+    private void secure(final RoutingContext ctx) {
 
         FrameworkAdapter.INSTANCE.applyDefaultSettingsIfUndefined(config);
 
+        if (executor == null) {
+            final Object result;
+            try {
+                result = performSecurity(ctx);
+            } catch (RuntimeException e) {
+                metrics.authorization(options.getClients(), "error");
+                throw e;
+            }
+            recordOutcome(ctx, result);
+            if (result == ACCESS_GRANTED) {
+                proceed(ctx);
+            }
+            return;
+        }
+
+        executor.execute(() -> performSecurity(ctx)).onComplete(ar -> {
+            if (ar.failed()) {
+                metrics.authorization(options.getClients(), "error");
+                // as is, like the inline failures
+                ctx.fail(ar.cause());
+            } else {
+                recordOutcome(ctx, ar.result());
+                if (ar.result() == ACCESS_GRANTED) {
+                    proceed(ctx);
+                }
+            }
+        });
+    }
+
+    /** Continue with the next handler once the profiles saved by the security logic are written to the session. */
+    private void proceed(final RoutingContext ctx) {
+        sessionStore.flushProfiles(ctx).onComplete(ar -> {
+            if (ar.failed()) {
+                ctx.fail(ar.cause());
+            } else {
+                ctx.next();
+            }
+        });
+    }
+
+    private void recordOutcome(final RoutingContext ctx, final Object result) {
+        if (metrics == Pac4jMetrics.NONE) {
+            return;
+        }
+        final String outcome;
+        if (result == ACCESS_GRANTED) {
+            outcome = "granted";
+        } else if (!ctx.failed() && ctx.response().getStatusCode() / 100 == 3) {
+            outcome = "redirected";
+        } else {
+            outcome = "denied";
+        }
+        metrics.authorization(options.getClients(), outcome);
+    }
+
+    private Object performSecurity(final RoutingContext ctx) {
+
         val securityLogic = config.getSecurityLogic();
 
         final SecurityGrantedAccessAdapter granted = (context, store, profiles) -> {
-            final Pac4jUser user = new Pac4jUser(profiles);
-
-            ((VertxWebContext) context).setVertxUser(user);
+            ((VertxWebContext) context).setVertxUser(profiles);
 
-            ctx.next();
-            return null;
+            return ACCESS_GRANTED;
         };
 
-        securityLogic.perform(
+        return securityLogic.perform(
                 config,
                 granted,
                 options.getClients(),
@@ -5,6 +5,9 @@ import lombok.NonNull;
 import lombok.Setter;
 import lombok.experimental.Accessors;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * @author Jeremy Prime
  * @since 2.0.0
@@ -24,4 +27,26 @@ public class SecurityHandlerOptions {
     @Getter @Setter
     private boolean multiProfile = false;
 
+    /**
+     * Where the security logic runs for clients which have no specific execution mode. By default it runs inline on
+     * the event loop, as it always has.
+     */
+    @Getter @Setter @NonNull
+    private ExecutionMode executionMode = ExecutionMode.INLINE;
+
+    /**
+     * Execution modes per client name, overriding the default execution mode. Cheap header clients can then stay
+     * inline while clients doing I/O (LDAP, database, OIDC) are offloaded. The mode is selected once, from the
+     * configuration: a handler runs in the mode of its clients or, if they differ, in the mode of the first one which
+     * does not run inline.
+     */
+    @Getter @Setter @NonNull
+    private Map<String, ExecutionMode> clientExecutionModes = new HashMap<>();
+
+    public SecurityHandlerOptions setClientExecutionMode(@NonNull final String client,
+                                                         @NonNull final ExecutionMode mode) {
+        clientExecutionModes.put(client, mode);
+        return this;
+    }
+
 }
@@ -0,0 +1,125 @@
+package org.pac4j.vertx.handler.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.pac4j.core.context.CallContext;
+import org.pac4j.core.logout.handler.DefaultSessionLogoutHandler;
+import org.pac4j.core.store.Store;
+import org.pac4j.vertx.context.session.VertxSessionStore;
+import org.pac4j.vertx.core.store.AsyncStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * pac4j session logout handler destroying the sessions logged out by an identity provider through a
+ * {@link LogoutFanOut}: the sessions are resolved with a single concurrent lookup and deleted from the Vert.x session
+ * store concurrently, instead of one after another. Set it on the pac4j configuration with
+ * {@code config.setSessionLogoutHandler(...)}.
+ *
+ * <p>Unlike pac4j's {@link DefaultSessionLogoutHandler}, which removes the profiles of the session and only destroys
+ * it when asked to, a back channel logout deletes the whole Vert.x session from the session store: its other
+ * attributes are lost too, and a new session is created on the next request of the user.</p>
+ *
+ * <p>{@link #destroySessionBack(CallContext, String)} does not wait for the deletion, which goes through the async
+ * store and session store paths, each step with its timeout: it can be called from an event loop. Its failures are
+ * logged. Use {@link #destroySessionsBack(Collection)} to wait for the outcome.</p>
+ *
+ * @since 7.0.4
+ */
+public class VertxSessionLogoutHandler extends DefaultSessionLogoutHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VertxSessionLogoutHandler.class);
+
+    private final VertxSessionStore sessionStore;
+    private final LogoutFanOut fanOut;
+
+    /**
+     * @param vertx the vertx API
+     * @param sessionStore the session store of the application
+     * @param maxConcurrency the maximum number of sessions deleted at the same time
+     * @param targetTimeoutMillis the time after which the deletion of a session is reported as failed
+     */
+    public VertxSessionLogoutHandler(final Vertx vertx, final VertxSessionStore sessionStore,
+                                     final int maxConcurrency, final long targetTimeoutMillis) {
+        this.sessionStore = Objects.requireNonNull(sessionStore, "sessionStore");
+        this.fanOut = new LogoutFanOut(vertx, maxConcurrency, targetTimeoutMillis);
+    }
+
+    @Override
+    public void destroySessionBack(final CallContext ctx, final String key) {
+        destroySessionsBack(List.of(key)).onComplete(ar -> {
+            if (ar.failed()) {
+                LOG.warn("Back channel logout of {} failed", key, ar.cause());
+            } else if (!ar.result().isSuccess()) {
+                LOG.warn("Back channel logout of {} failed: {}", key, ar.result().getFailed());
+            }
+        });
+    }
+
+    /**
+     * Destroy the sessions recorded under several keys, e.g. all the sessions of a user.
+     *
+     * @param keys the keys under which the sessions were recorded
+     * @return the outcome of the deletions, one target per existing session; failed only if the sessions could not
+     * be resolved
+     */
+    public Future<LogoutSummary> destroySessionsBack(final Collection<String> keys) {
+        final List<String> list = new ArrayList<>(keys);
+        final List<Future<Optional<Object>>> lookups = new ArrayList<>(list.size());
+        for (final String key : list) {
+            lookups.add(trackableSession(key));
+        }
+        return Future.all(lookups).compose(all -> {
+            final Map<Object, String> keysBySession = new LinkedHashMap<>();
+            for (int i = 0; i < list.size(); i++) {
+                final Optional<Object> trackableSession = all.resultAt(i);
+                final String key = list.get(i);
+                trackableSession.ifPresent(session -> keysBySession.put(session, key));
+            }
+            return sessionStore.buildFromTrackableSessionsAsync(keysBySession.keySet()).compose(existing -> {
+                final List<LogoutTarget> targets = new ArrayList<>(existing.size());
+                existing.forEach((trackableSession, tracked) -> {
+                    final String key = keysBySession.get(trackableSession);
+                    targets.add(LogoutTarget.of("session:" + trackableSession, () ->
+                            ((VertxSessionStore) tracked).deleteTrackedSession().compose(v -> forget(key))));
+                });
+                return fanOut.run(targets);
+            });
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Future<Optional<Object>> trackableSession(final String key) {
+        final Store<String, Object> store = getStore();
+        if (store instanceof AsyncStore) {
+            return ((AsyncStore<String, Object>) store).getAsync(key);
+        }
+        try {
+            return Future.succeededFuture(store.get(key));
+        } catch (RuntimeException e) {
+            return Future.failedFuture(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Future<Void> forget(final String key) {
+        final Store<String, Object> store = getStore();
+        if (store instanceof AsyncStore) {
+            return ((AsyncStore<String, Object>) store).removeAsync(key);
+        }
+        try {
+            store.remove(key);
+            return Future.succeededFuture();
+        } catch (RuntimeException e) {
+            return Future.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.pac4j.vertx.handler.impl;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Options of a dedicated worker pool for the blocking pac4j logic of a handler, so that it does not compete with the
+ * rest of the application's blocking work. Handlers configured with the same pool name share the pool.
+ *
+ * @since 7.0.4
+ */
+@Accessors(chain = true)
+public class WorkerPoolOptions {
+
+    @Getter @Setter
+    private String name = "pac4j-worker";
+
+    @Getter @Setter
+    private int poolSize = 20;
+
+    /** Time after which a blocked worker is reported by the Vert.x blocked thread checker. */
+    @Getter @Setter
+    private long maxExecuteTime = 60;
+
+    @Getter @Setter
+    private TimeUnit maxExecuteTimeUnit = TimeUnit.SECONDS;
+}
@@ -12,6 +12,8 @@ import org.pac4j.vertx.VertxWebContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * @author Jeremy Prime
  * @since 2.0.0
@@ -22,10 +24,39 @@ public class VertxHttpActionAdapter implements HttpActionAdapter {
 
     private static final Logger LOG = LoggerFactory.getLogger(VertxHttpActionAdapter.class);
 
+    private static final String DEFERRED_ACTION_KEY = VertxHttpActionAdapter.class.getName() + ".deferred";
+
+    /**
+     * Keep the actions of the request instead of writing them to the response, until
+     * {@link #completeDeferred(RoutingContext)} is called, e.g. to finish some work before the response is sent.
+     *
+     * @param routingContext the routing context of the request
+     */
+    public static void defer(final RoutingContext routingContext) {
+        routingContext.put(DEFERRED_ACTION_KEY, new AtomicReference<HttpAction>());
+    }
+
+    /**
+     * Write the last action kept since {@link #defer(RoutingContext)}, if any, and stop deferring the actions.
+     *
+     * @param routingContext the routing context of the request
+     */
+    public static void completeDeferred(final RoutingContext routingContext) {
+        final AtomicReference<HttpAction> deferred = routingContext.remove(DEFERRED_ACTION_KEY);
+        if (deferred != null && deferred.get() != null) {
+            INSTANCE.adapt(deferred.get(), new VertxWebContext(routingContext));
+        }
+    }
+
     @Override
     public Object adapt(final HttpAction action, final WebContext context) {
         if (action != null) {
             final RoutingContext routingContext = ((VertxWebContext)context).getVertxRoutingContext();
+            final AtomicReference<HttpAction> deferred = routingContext.get(DEFERRED_ACTION_KEY);
+            if (deferred != null) {
+                deferred.set(action);
+                return null;
+            }
             int code = action.getCode();
             LOG.debug("Adapting action: {}", code);
 
@@ -0,0 +1,198 @@
+package org.pac4j.vertx.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * <p>{@link Pac4jMetrics} backed by a Micrometer registry. Requires the optional <code>micrometer-core</code>
+ * dependency.</p>
+ *
+ * <p>With <code>vertx-micrometer-metrics</code>, pass <code>BackendRegistries.getDefaultNow()</code> so that the pac4j
+ * meters are published along with the Vert.x ones.</p>
+ *
+ * <p>The meters are registered once per tag set, then looked up. Each tag (client, clients of a handler, pool, map)
+ * has at most {@link #MAX_TAG_VALUES} distinct values, the next ones are recorded under {@link #OTHER_TAG_VALUE}: the
+ * client name of a callback comes from the request. Percentile histograms are only published on demand.</p>
+ *
+ * @since 7.0.4
+ */
+public class MicrometerPac4jMetrics implements Pac4jMetrics {
+
+    /** Maximum number of distinct values of a tag. */
+    public static final int MAX_TAG_VALUES = 100;
+
+    /** Tag value of the values beyond {@link #MAX_TAG_VALUES}. */
+    public static final String OTHER_TAG_VALUE = "other";
+
+    private final MeterRegistry registry;
+    private final boolean percentileHistograms;
+
+    private final Meters<Outcomes<Timer>> authentications;
+    private final Meters<Counters> authorizations;
+    private final Meters<Outcomes<Timer>> callbacks;
+    private final Outcomes<Timer> logouts;
+    private final Meters<Timer> executorWaits;
+    private final Timer encodings;
+    private final Timer decodings;
+    private final DistributionSummary encodedSizes;
+    private final DistributionSummary decodedSizes;
+    private final Meters<Meters<Outcomes<Timer>>> storeOperations;
+    private final Meters<Counter> storeTimeouts;
+
+    public MicrometerPac4jMetrics(final MeterRegistry registry) {
+        this(registry, false);
+    }
+
+    /**
+     * @param registry the registry
+     * @param percentileHistograms whether the timers publish percentile histograms, which multiply their time series
+     */
+    public MicrometerPac4jMetrics(final MeterRegistry registry, final boolean percentileHistograms) {
+        this.registry = Objects.requireNonNull(registry, "registry");
+        this.percentileHistograms = percentileHistograms;
+        authentications = new Meters<>(client -> timers("pac4j.authentication", "client", client));
+        authorizations = new Meters<>(Counters::new);
+        callbacks = new Meters<>(client -> timers("pac4j.callback", "client", client));
+        logouts = timers("pac4j.logout");
+        executorWaits = new Meters<>(pool -> timer("pac4j.executor.wait", "pool", pool));
+        encodings = timer("pac4j.session.profiles", "operation", "encode");
+        decodings = timer("pac4j.session.profiles", "operation", "decode");
+        encodedSizes = size("encode");
+        decodedSizes = size("decode");
+        storeOperations = new Meters<>(map -> new Meters<>(operation ->
+                timers("pac4j.store.operation", "map", map, "operation", operation)));
+        storeTimeouts = new Meters<>(map -> Counter.builder("pac4j.store.timeouts")
+                .tags("map", map)
+                .register(registry));
+    }
+
+    @Override
+    public void authentication(final String client, final long nanos, final boolean success) {
+        authentications.get(client).of(success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void authorization(final String clients, final String outcome) {
+        authorizations.get(clients).of(outcome).increment();
+    }
+
+    @Override
+    public void callback(final String client, final long nanos, final boolean success) {
+        callbacks.get(client).of(success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void logout(final long nanos, final boolean success) {
+        logouts.of(success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void executorWait(final String pool, final long nanos) {
+        executorWaits.get(pool).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void profilesEncoded(final long nanos, final int bytes) {
+        encodings.record(nanos, TimeUnit.NANOSECONDS);
+        encodedSizes.record(bytes);
+    }
+
+    @Override
+    public void profilesDecoded(final long nanos, final int bytes) {
+        decodings.record(nanos, TimeUnit.NANOSECONDS);
+        decodedSizes.record(bytes);
+    }
+
+    @Override
+    public void storeOperation(final String mapName, final String operation, final long nanos, final boolean success) {
+        storeOperations.get(mapName).get(operation).of(success).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void storeTimeout(final String mapName) {
+        storeTimeouts.get(mapName).increment();
+    }
+
+    private Outcomes<Timer> timers(final String name, final String... tags) {
+        return new Outcomes<>(timer(name, withOutcome(tags, "success")), timer(name, withOutcome(tags, "failure")));
+    }
+
+    private static String[] withOutcome(final String[] tags, final String outcome) {
+        final String[] all = new String[tags.length + 2];
+        System.arraycopy(tags, 0, all, 0, tags.length);
+        all[tags.length] = "outcome";
+        all[tags.length + 1] = outcome;
+        return all;
+    }
+
+    private Timer timer(final String name, final String... tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram(percentileHistograms)
+                .register(registry);
+    }
+
+    private DistributionSummary size(final String operation) {
+        return DistributionSummary.builder("pac4j.session.profiles.size")
+                .baseUnit("bytes")
+                .tags("operation", operation)
+                .register(registry);
+    }
+
+    /** The meters of the values of a tag, at most {@link #MAX_TAG_VALUES} of them. */
+    private static final class Meters<M> {
+        private final ConcurrentMap<String, M> meters = new ConcurrentHashMap<>();
+        private final Function<String, M> factory;
+
+        private Meters(final Function<String, M> factory) {
+            this.factory = factory;
+        }
+
+        private M get(final String value) {
+            final String tagValue = String.valueOf(value);
+            final M meter = meters.get(tagValue);
+            if (meter != null) {
+                return meter;
+            }
+            // the bound may be exceeded by a few concurrent registrations
+            return meters.computeIfAbsent(meters.size() < MAX_TAG_VALUES ? tagValue : OTHER_TAG_VALUE, factory);
+        }
+    }
+
+    private static final class Outcomes<M> {
+        private final M success;
+        private final M failure;
+
+        private Outcomes(final M success, final M failure) {
+            this.success = success;
+            this.failure = failure;
+        }
+
+        private M of(final boolean succeeded) {
+            return succeeded ? success : failure;
+        }
+    }
+
+    /** The authorization counters of the clients of a handler, by outcome. */
+    private final class Counters {
+        private final Meters<Counter> byOutcome;
+
+        private Counters(final String clients) {
+            byOutcome = new Meters<>(outcome -> Counter.builder("pac4j.authorization")
+                    .tags("clients", clients, "outcome", outcome)
+                    .register(registry));
+        }
+
+        private Counter of(final String outcome) {
+            return byOutcome.get(outcome);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.pac4j.vertx.metrics;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * <p>Metrics SPI of the pac4j handlers, stores and session store. All the methods do nothing by default.</p>
+ *
+ * <p>Metrics are opt-in: an implementation, e.g. {@link MicrometerPac4jMetrics}, is registered on a Vert.x instance
+ * with {@link #register(Vertx, Pac4jMetrics)} before the handlers and stores are created, which pick it up with
+ * {@link #of(Vertx)}. Implementations are shared by all the event loops and workers, so they must be thread safe.</p>
+ *
+ * <p>This is not the Vert.x metrics SPI, which has no extension point for libraries: the registered implementation is
+ * kept in a local map of the Vert.x instance, hence it being {@link Shareable}.</p>
+ *
+ * @since 7.0.4
+ */
+public interface Pac4jMetrics extends Shareable {
+
+    /** Metrics which record nothing, used when none is registered. */
+    Pac4jMetrics NONE = new Pac4jMetrics() {
+    };
+
+    /**
+     * Register the metrics of a Vert.x instance.
+     *
+     * @param vertx the vertx API
+     * @param metrics the metrics
+     */
+    static void register(final Vertx vertx, final Pac4jMetrics metrics) {
+        registry(vertx).put(Pac4jMetrics.class.getName(), metrics);
+    }
+
+    /**
+     * @param vertx the vertx API
+     * @return the metrics registered on the Vert.x instance, {@link #NONE} if none
+     */
+    static Pac4jMetrics of(final Vertx vertx) {
+        final Pac4jMetrics metrics = registry(vertx).get(Pac4jMetrics.class.getName());
+        return (metrics != null) ? metrics : NONE;
+    }
+
+    private static LocalMap<String, Pac4jMetrics> registry(final Vertx vertx) {
+        return vertx.sharedData().getLocalMap("pac4jMetrics");
+    }
+
+    /**
+     * Credentials validated by the authenticator of a direct client.
+     *
+     * @param client the client name
+     * @param nanos the validation time
+     * @param success whether the credentials were valid
+     */
+    default void authentication(final String client, final long nanos, final boolean success) {
+    }
+
+    /**
+     * Outcome of a security handler pass.
+     *
+     * @param clients the clients of the handler
+     * @param outcome <code>granted</code>, <code>redirected</code>, <code>denied</code> or <code>error</code>
+     */
+    default void authorization(final String clients, final String outcome) {
+    }
+
+    /**
+     * @param client the client name, <code>unknown</code> if it is not in the callback request
+     * @param nanos the callback time
+     * @param success whether the callback logic completed
+     */
+    default void callback(final String client, final long nanos, final boolean success) {
+    }
+
+    /**
+     * @param nanos the logout time
+     * @param success whether the logout logic completed
+     */
+    default void logout(final long nanos, final boolean success) {
+    }
+
+    /**
+     * Time a blocking task waited for a thread.
+     *
+     * @param pool the name of the pool
+     * @param nanos the wait time
+     */
+    default void executorWait(final String pool, final long nanos) {
+    }
+
+    /**
+     * @param nanos the encoding time of the user profiles of a session
+     * @param bytes the size of the encoded profiles
+     */
+    default void profilesEncoded(final long nanos, final int bytes) {
+    }
+
+    /**
+     * @param nanos the decoding time of the user profiles of a session
+     * @param bytes the size of the encoded profiles
+     */
+    default void profilesDecoded(final long nanos, final int bytes) {
+    }
+
+    /**
+     * @param mapName the shared data map of the store
+     * @param operation <code>get</code>, <code>set</code> or <code>remove</code>
+     * @param nanos the operation time
+     * @param success whether the operation succeeded
+     */
+    default void storeOperation(final String mapName, final String operation, final long nanos, final boolean success) {
+    }
+
+    /**
+     * A synchronous store call gave up waiting for the clustered map.
+     *
+     * @param mapName the shared data map of the store
+     */
+    default void storeTimeout(final String mapName) {
+    }
+}
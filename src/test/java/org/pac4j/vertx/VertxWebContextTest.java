@@ -0,0 +1,104 @@
+package org.pac4j.vertx;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.net.NetClient;
+import io.vertx.core.net.NetSocket;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.BodyHandler;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VertxWebContextTest {
+
+  private Vertx vertx;
+  private HttpServer server;
+  private final AtomicReference<VertxWebContext> context = new AtomicReference<>();
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+    final Router router = Router.router(vertx);
+    router.route().handler(BodyHandler.create());
+    router.route().handler(rc -> {
+      final VertxWebContext webContext = new VertxWebContext(rc);
+      // resolved on the event loop, while the request is in flight
+      webContext.getRequestParameters();
+      webContext.getServerName();
+      context.set(webContext);
+      rc.end();
+    });
+    server = vertx.createHttpServer().requestHandler(router).listen(0, "127.0.0.1").await();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testFormParametersTakePrecedenceOverQueryParameters() {
+    final String form = "name=form&other=value";
+    final VertxWebContext webContext = send("POST /path?name=query&query=value HTTP/1.1\r\n"
+        + "Host: localhost\r\n"
+        + "Content-Type: application/x-www-form-urlencoded\r\n"
+        + "Content-Length: " + form.length() + "\r\n\r\n" + form);
+
+    assertEquals("form", webContext.getRequestParameter("name").get());
+    assertEquals("value", webContext.getRequestParameter("query").get());
+    assertEquals("value", webContext.getRequestParameter("other").get());
+    assertFalse(webContext.getRequestParameter("missing").isPresent());
+    assertArrayEquals(new String[] {"form"}, webContext.getRequestParameters().get("name"));
+    assertArrayEquals(new String[] {"value"}, webContext.getRequestParameters().get("query"));
+  }
+
+  @Test
+  public void testDefaultPort() {
+    final VertxWebContext webContext = send("GET /path HTTP/1.1\r\nHost: example.com\r\n\r\n");
+
+    assertEquals("http", webContext.getScheme());
+    assertEquals("example.com", webContext.getServerName());
+    assertEquals(80, webContext.getServerPort());
+    assertFalse(webContext.isSecure());
+  }
+
+  @Test
+  public void testNonDefaultPort() {
+    final VertxWebContext webContext = send("GET /path HTTP/1.1\r\nHost: example.com:8443\r\n\r\n");
+
+    assertEquals("example.com", webContext.getServerName());
+    assertEquals(8443, webContext.getServerPort());
+    assertTrue(webContext.getFullRequestURL().startsWith("http://example.com:8443/path"));
+  }
+
+  @Test
+  public void testMissingHost() {
+    final VertxWebContext webContext = send("GET /path HTTP/1.0\r\n\r\n");
+
+    // falls back to the address the request was received on
+    assertEquals("http", webContext.getScheme());
+    assertEquals("127.0.0.1", webContext.getServerName());
+    assertEquals(server.actualPort(), webContext.getServerPort());
+  }
+
+  /** Sends a raw request, so that the Host header can be left out. */
+  private VertxWebContext send(final String request) {
+    final NetClient client = vertx.createNetClient();
+    final NetSocket socket = client.connect(server.actualPort(), "127.0.0.1").await();
+    final Promise<Void> response = Promise.promise();
+    socket.handler(buffer -> response.tryComplete());
+    socket.closeHandler(v -> response.tryComplete());
+    socket.write(request);
+    response.future().await();
+    socket.close();
+    return context.get();
+  }
+}
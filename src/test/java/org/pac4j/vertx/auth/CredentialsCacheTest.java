@@ -0,0 +1,106 @@
+package org.pac4j.vertx.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.credentials.TokenCredentials;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+
+public class CredentialsCacheTest {
+
+  @Test
+  public void testKeyDependsOnClientAndToken() {
+    final CredentialsCache cache = new CredentialsCache(10, 1, TimeUnit.MINUTES);
+    final String key = cache.key("HeaderClient", new TokenCredentials("token"));
+
+    assertEquals(key, cache.key("HeaderClient", new TokenCredentials("token")));
+    assertNotEquals(key, cache.key("OtherClient", new TokenCredentials("token")));
+    assertNotEquals(key, cache.key("HeaderClient", new TokenCredentials("other")));
+    // keyed with the secret of each cache
+    final CredentialsCache other = new CredentialsCache(10, 1, TimeUnit.MINUTES);
+    assertNotEquals(key, other.key("HeaderClient", new TokenCredentials("token")));
+  }
+
+  @Test
+  public void testHitMissAndEviction() {
+    final CredentialsCache cache = new CredentialsCache(1, 1, TimeUnit.MINUTES);
+    cache.put("a", profile("a"));
+
+    assertTrue(cache.get("a").isPresent());
+    assertFalse(cache.get("b").isPresent());
+
+    cache.put("b", profile("b"));
+    assertFalse(cache.get("a").isPresent());
+
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(1, cache.getEvictions());
+  }
+
+  @Test
+  public void testTokenExpiration() {
+    final CredentialsCache cache = new CredentialsCache(10, 1, TimeUnit.MINUTES);
+    final CommonProfile profile = profile("a");
+    profile.addAttribute("exp", new Date(System.currentTimeMillis() - 1000));
+    cache.put("a", profile);
+
+    assertFalse(cache.get("a").isPresent());
+  }
+
+  @Test
+  public void testInvalidate() {
+    final CredentialsCache cache = new CredentialsCache(10, 1, TimeUnit.MINUTES);
+    cache.put("a", profile("a"));
+    cache.put("b", profile("b"));
+
+    cache.invalidate(profile("a"));
+
+    assertFalse(cache.get("a").isPresent());
+    assertTrue(cache.get("b").isPresent());
+  }
+
+  @Test
+  public void testInvalidateAllTheEntriesOfAProfile() {
+    final CredentialsCache cache = new CredentialsCache(2, 1, TimeUnit.MINUTES);
+    cache.put("a1", profile("a"));
+    cache.put("a2", profile("a"));
+    // replaces a1 with another profile, then evicts a2
+    cache.put("a1", profile("b"));
+    cache.put("c", profile("c"));
+    cache.put("a3", profile("a"));
+
+    cache.invalidate(profile("a"));
+
+    assertFalse(cache.get("a3").isPresent());
+    assertEquals(1, cache.size());
+    assertTrue(cache.get("c").isPresent());
+  }
+
+  @Test
+  public void testHitsGetTheirOwnCopy() {
+    final CredentialsCache cache = new CredentialsCache(10, 1, TimeUnit.MINUTES);
+    cache.put("a", profile("a"));
+
+    final UserProfile first = cache.get("a").get();
+    first.addRole("admin");
+    final UserProfile second = cache.get("a").get();
+
+    assertNotSame(first, second);
+    assertEquals("a", second.getId());
+    assertFalse(second.getRoles().contains("admin"));
+  }
+
+  private static CommonProfile profile(final String id) {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId(id);
+    profile.setClientName("HeaderClient");
+    return profile;
+  }
+}
@@ -0,0 +1,62 @@
+package org.pac4j.vertx.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.buffer.Buffer;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+
+public class ImmutablePac4jUserTest {
+
+  @Test
+  public void testMergeReturnsANewUser() {
+    final UserProfile first = profile("first", "admin");
+    final UserProfile second = profile("second", "user");
+    final ImmutablePac4jUser user = new ImmutablePac4jUser(List.of(first));
+    final Pac4jUser other = new Pac4jUser(List.of(second));
+    other.attributes().put("mfa", "totp");
+
+    final Pac4jUser merged = (Pac4jUser) user.merge(other);
+
+    assertTrue(merged instanceof ImmutablePac4jUser);
+    assertEquals(List.of(first), user.profiles());
+    assertEquals(1, user.principal().getInteger("profilesCount"));
+    assertTrue(user.attributes().isEmpty());
+    assertEquals(List.of(first, second), merged.profiles());
+    assertEquals(2, merged.principal().getInteger("profilesCount"));
+    assertEquals("totp", merged.attributes().getString("mfa"));
+    assertEquals(Set.of("admin", "user"), merged.roles());
+    assertThrows(UnsupportedOperationException.class, () -> merged.profiles().add(first));
+  }
+
+  @Test
+  public void testReadResetsTheCachedState() {
+    final ImmutablePac4jUser user = new ImmutablePac4jUser(List.of(profile("id", "admin")));
+    user.principal().put("mfa", "totp");
+    final Buffer buffer = Buffer.buffer();
+    user.writeToBuffer(buffer);
+
+    final ImmutablePac4jUser read = new ImmutablePac4jUser();
+    final int emptyHash = read.hashCode();
+    read.readFromBuffer(0, buffer);
+
+    assertNotEquals(emptyHash, read.hashCode());
+    assertEquals(user.hashCode(), read.hashCode());
+    assertEquals(user, read);
+    assertEquals("totp", read.principal().getString("mfa"));
+    assertTrue(read.hasRole("admin"));
+  }
+
+  private static UserProfile profile(final String id, final String role) {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId(id);
+    profile.addRole(role);
+    return profile;
+  }
+}
@@ -0,0 +1,48 @@
+package org.pac4j.vertx.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.ext.auth.User;
+import io.vertx.ext.auth.authorization.PermissionBasedAuthorization;
+import io.vertx.ext.auth.authorization.RoleBasedAuthorization;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+
+public class Pac4jAuthorizationProviderTest {
+
+  @Test
+  public void testGrantsTheRolesOfAllProfiles() {
+    final Pac4jUser user = new Pac4jUser(List.of(profile("first", "admin"), profile("second", "user")));
+
+    assertTrue(Pac4jAuthorizationProvider.getInstance().getAuthorizations(user).succeeded());
+
+    assertEquals(Set.of("admin", "user"), user.roles());
+    assertTrue(user.authorizations().contains(Pac4jAuthorizationProvider.ID));
+    assertTrue(RoleBasedAuthorization.create("admin").match(user));
+    assertTrue(RoleBasedAuthorization.create("user").match(user));
+    assertFalse(RoleBasedAuthorization.create("other").match(user));
+    assertTrue(RoleBasedAuthorization.create("admin").setResource("orders").match(user));
+    assertFalse(RoleBasedAuthorization.create("other").setResource("orders").match(user));
+    assertFalse(PermissionBasedAuthorization.create("admin").match(user));
+  }
+
+  @Test
+  public void testIgnoresOtherUsers() {
+    final User user = User.fromName("jdoe");
+
+    assertTrue(Pac4jAuthorizationProvider.getInstance().getAuthorizations(user).succeeded());
+    assertFalse(RoleBasedAuthorization.create("admin").match(user));
+  }
+
+  private static UserProfile profile(final String id, final String role) {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId(id);
+    profile.addRole(role);
+    return profile;
+  }
+}
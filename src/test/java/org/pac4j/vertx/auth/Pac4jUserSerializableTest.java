@@ -1,8 +1,12 @@
 package org.pac4j.vertx.auth;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.pac4j.core.profile.CommonProfile;
@@ -25,6 +29,96 @@ public class Pac4jUserSerializableTest {
 
   @Test
   public void tesClusterSerializable() {
+    final Pac4jUser user = new Pac4jUser(List.of(profile()));
+    user.attributes().put("source", "test");
+    final Buffer buffer = Buffer.buffer();
+    user.writeToBuffer(buffer);
+    buffer.appendString("next");
+
+    final Pac4jUser userFromBuffer = new Pac4jUser();
+    final int end = userFromBuffer.readFromBuffer(0, buffer);
+
+    assertEquals(user, userFromBuffer);
+    assertEquals("next", buffer.getString(end, buffer.length()));
+  }
+
+  @Test
+  public void testReadsLegacyFormat() {
+    final Pac4jUser user = new Pac4jUser(List.of(profile()));
+    final Buffer json = Json.CODEC.toBuffer(user, false);
+    final Buffer buffer = Buffer.buffer().appendInt(json.length()).appendBuffer(json);
+
+    final Pac4jUser userFromBuffer = new Pac4jUser();
+    userFromBuffer.readFromBuffer(0, buffer);
+
+    assertEquals(user, userFromBuffer);
+  }
+
+  @Test
+  public void testReadsLegacyFormatWithAttributes() {
+    final Pac4jUser user = new Pac4jUser();
+    user.attributes().put("source", "legacy");
+    final Buffer json = Json.CODEC.toBuffer(user, false);
+    final Buffer buffer = Buffer.buffer().appendInt(json.length()).appendBuffer(json);
+
+    final Pac4jUser userFromBuffer = new Pac4jUser();
+    final int end = userFromBuffer.readFromBuffer(0, buffer);
+
+    assertEquals(user, userFromBuffer);
+    assertEquals("legacy", userFromBuffer.attributes().getString("source"));
+    assertEquals(buffer.length(), end);
+  }
+
+  @Test
+  public void testPrincipalChangesAreSerialized() {
+    final Pac4jUser user = new Pac4jUser(List.of(profile()));
+    user.principal().put("mfa", "totp");
+    final Buffer buffer = Buffer.buffer();
+    user.writeToBuffer(buffer);
+
+    final Pac4jUser userFromBuffer = new Pac4jUser();
+    userFromBuffer.readFromBuffer(0, buffer);
+
+    assertEquals("totp", userFromBuffer.principal().getString("mfa"));
+    assertEquals(user, userFromBuffer);
+    assertNotEquals(new Pac4jUser(List.of(profile())), userFromBuffer);
+  }
+
+  @Test
+  public void testUnreadableProfilesAreSkipped() {
+    final UserProfile other = profile();
+    other.setId("other");
+    final Pac4jUser user = new Pac4jUser(List.of(profile(), other));
+    final Buffer buffer = Buffer.buffer();
+    user.writeToBuffer(buffer);
+    // header, length, count and length of the first profile, then its codec magic byte
+    buffer.setByte(16, (byte) 0);
+
+    final Pac4jUser userFromBuffer = new Pac4jUser();
+    final int end = userFromBuffer.readFromBuffer(0, buffer);
+
+    assertEquals(List.of(other), userFromBuffer.profiles());
+    assertEquals(buffer.length(), end);
+  }
+
+  @Test
+  public void testLegacyProfileTypesMustBeRegistered() {
+    final Buffer json = new JsonObject().put("profiles", new JsonArray()
+        .add(new JsonObject().put("typedId", "org.pac4j.vertx.auth.Pac4jUserSerializableTest$Unregistered#id")
+            .put("id", "id"))).toBuffer();
+    final Buffer buffer = Buffer.buffer().appendInt(json.length()).appendBuffer(json);
+
+    final Pac4jUser userFromBuffer = new Pac4jUser();
+    userFromBuffer.readFromBuffer(0, buffer);
+
+    assertEquals(CommonProfile.class, userFromBuffer.profiles().get(0).getClass());
+    assertEquals("id", userFromBuffer.profiles().get(0).getId());
+  }
+
+  public static class Unregistered extends CommonProfile {
+  }
+
+  private static UserProfile profile() {
     final UserProfile userProfile = new CommonProfile();
     userProfile.setId("id");
     userProfile.setClientName("clientName");
@@ -39,15 +133,7 @@ public class Pac4jUserSerializableTest {
     userProfile.addAttribute(CommonProfileDefinition.LOCATION, "location");
     userProfile.addAttribute(CommonProfileDefinition.PICTURE_URL, "pictureUrl");
     userProfile.addAttribute(CommonProfileDefinition.PROFILE_URL, "profileUrl");
-
-    final Pac4jUser user = new Pac4jUser(List.of(userProfile));
-    final Buffer buffer = Buffer.buffer();
-    user.writeToBuffer(buffer);
-
-    final Pac4jUser userFromBuffer = new Pac4jUser();
-    userFromBuffer.readFromBuffer(0, buffer);
-
-    assertEquals(user, userFromBuffer);
+    return userProfile;
   }
 
 }
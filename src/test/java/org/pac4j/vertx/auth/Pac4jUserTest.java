@@ -0,0 +1,76 @@
+package org.pac4j.vertx.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.ext.auth.User;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+
+public class Pac4jUserTest {
+
+  @Test
+  public void testHasSameProfiles() {
+    final UserProfile first = profile("first");
+    final UserProfile second = profile("second");
+    final Pac4jUser user = new Pac4jUser(List.of(first, second));
+
+    assertTrue(user.hasSameProfiles(List.of(first, second)));
+    assertFalse(user.hasSameProfiles(List.of(second, first)));
+    assertFalse(user.hasSameProfiles(List.of(first, profile("second"))));
+    assertFalse(user.hasSameProfiles(List.of(first)));
+    assertTrue(new Pac4jUser().hasSameProfiles(null));
+  }
+
+  @Test
+  public void testMergeModifiesTheUser() {
+    final UserProfile first = profile("first");
+    final UserProfile second = profile("second");
+    final Pac4jUser user = new Pac4jUser(List.of(first));
+    final Pac4jUser other = new Pac4jUser(List.of(second));
+    other.attributes().put("mfa", "totp");
+
+    assertSame(user, user.merge(other));
+
+    assertEquals(List.of(first, second), user.profiles());
+    assertEquals(2, user.principal().getInteger("profilesCount"));
+    assertEquals("totp", user.attributes().getString("mfa"));
+    user.profiles().add(profile("third"));
+    assertEquals(3, user.profiles().size());
+  }
+
+  @Test
+  public void testEquality() {
+    final UserProfile profile = profile("id");
+    final Pac4jUser user = new Pac4jUser(List.of(profile));
+    final Pac4jUser same = new Pac4jUser(List.of(profile));
+    same.attributes().put("key", "value");
+
+    assertEquals(user, same);
+    assertEquals(user.hashCode(), same.hashCode());
+    assertNotEquals(user, new Pac4jUser(List.of(profile("other"))));
+    assertNotEquals(user, new Pac4jUser(List.of(profile)).merge(User.fromName("jdoe")));
+  }
+
+  @Test
+  public void testEqualsTheImmutableVariant() {
+    final UserProfile profile = profile("id");
+    final Pac4jUser user = new Pac4jUser(List.of(profile));
+    final Pac4jUser immutable = new ImmutablePac4jUser(List.of(profile));
+
+    assertEquals(user, immutable);
+    assertEquals(immutable, user);
+    assertEquals(user.hashCode(), immutable.hashCode());
+  }
+
+  private static UserProfile profile(final String id) {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId(id);
+    return profile;
+  }
+}
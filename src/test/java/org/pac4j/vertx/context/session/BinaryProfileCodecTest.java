@@ -0,0 +1,79 @@
+package org.pac4j.vertx.context.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.profile.definition.CommonProfileDefinition;
+
+public class BinaryProfileCodecTest {
+
+  @Test
+  public void testRoundTrip() {
+    final LinkedHashMap<String, UserProfile> profiles = profiles();
+
+    final Object encoded = BinaryProfileCodec.INSTANCE.encode(profiles);
+    assertInstanceOf(byte[].class, encoded);
+
+    @SuppressWarnings("unchecked")
+    final Map<String, UserProfile> decoded = (Map<String, UserProfile>) BinaryProfileCodec.INSTANCE.decode(encoded);
+    assertEquals(profiles.keySet(), decoded.keySet());
+    final UserProfile expected = profiles.get("clientName");
+    final UserProfile actual = decoded.get("clientName");
+    assertEquals(CommonProfile.class, actual.getClass());
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getClientName(), actual.getClientName());
+    assertEquals(expected.getLinkedId(), actual.getLinkedId());
+    assertEquals(expected.isRemembered(), actual.isRemembered());
+    assertEquals(expected.getRoles(), actual.getRoles());
+    assertEquals(expected.getAttributes(), actual.getAttributes());
+    assertEquals(expected.getAuthenticationAttributes(), actual.getAuthenticationAttributes());
+  }
+
+  @Test
+  public void testReadsLegacyFormat() {
+    final LinkedHashMap<String, UserProfile> profiles = profiles();
+
+    final Object legacy = JavaProfileCodec.INSTANCE.encode(profiles);
+
+    @SuppressWarnings("unchecked")
+    final Map<String, UserProfile> decoded = (Map<String, UserProfile>) BinaryProfileCodec.INSTANCE.decode(legacy);
+    assertEquals(profiles.get("clientName").getAttributes(), decoded.get("clientName").getAttributes());
+  }
+
+  @Test
+  public void testDefaultCodecReadsTheBinaryFormat() {
+    final LinkedHashMap<String, UserProfile> profiles = profiles();
+
+    final Object binary = BinaryProfileCodec.INSTANCE.encode(profiles);
+
+    @SuppressWarnings("unchecked")
+    final Map<String, UserProfile> decoded = (Map<String, UserProfile>) JavaProfileCodec.INSTANCE.decode(binary);
+    assertEquals(profiles.get("clientName").getAttributes(), decoded.get("clientName").getAttributes());
+    assertInstanceOf(String.class, JavaProfileCodec.INSTANCE.encode(profiles));
+  }
+
+  private static LinkedHashMap<String, UserProfile> profiles() {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId("id");
+    profile.setClientName("clientName");
+    profile.setLinkedId("linkedId");
+    profile.setRemembered(true);
+    profile.addRole("admin");
+    profile.addAttribute(CommonProfileDefinition.EMAIL, "email@vertx.org");
+    profile.addAttribute("count", 3);
+    profile.addAttribute("groups", List.of("a", "b"));
+    profile.addAttribute("exp", new Date(1000L));
+    profile.addAuthenticationAttribute("amr", "pwd");
+
+    final LinkedHashMap<String, UserProfile> profiles = new LinkedHashMap<>();
+    profiles.put(profile.getClientName(), profile);
+    return profiles;
+  }
+}
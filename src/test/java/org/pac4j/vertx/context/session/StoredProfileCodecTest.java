@@ -0,0 +1,219 @@
+package org.pac4j.vertx.context.session;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.vertx.core.store.AsyncStore;
+import org.pac4j.vertx.core.store.VertxLocalMapStore;
+import org.pac4j.vertx.core.store.VertxMapStoreOptions;
+
+public class StoredProfileCodecTest {
+
+  private Vertx vertx;
+  private VertxLocalMapStore<String, byte[]> store;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+    store = new VertxLocalMapStore<>(vertx);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSessionOnlyHoldsAReference() {
+    final Map<String, UserProfile> profiles = profiles("id");
+    final StoredProfileCodec codec = codec(store);
+    // the encoding has no side effect
+    final Object encoded = codec.encode("session", profiles);
+    assertEquals(0, store.size());
+    final Object reference = codec.write("session", profiles).await();
+
+    assertArrayEquals((byte[]) encoded, (byte[]) reference);
+    assertTrue(((byte[]) reference).length < 40);
+    assertEquals(1, store.size());
+    // another node, with an empty cache
+    final StoredProfileCodec reader = codec(store);
+    reader.prefetch(reference).await();
+    final Map<String, UserProfile> decoded = (Map<String, UserProfile>) reader.decode(reference);
+    assertEquals("id", decoded.get("client").getId());
+    assertEquals("jdoe@example.com", decoded.get("client").getAttribute("email"));
+  }
+
+  @Test
+  public void testReferenceChangesWithTheProfiles() {
+    final StoredProfileCodec codec = codec(store);
+    final byte[] first = (byte[]) codec.encode("session", profiles("id"));
+    final byte[] same = (byte[]) codec.encode("session", profiles("id"));
+    final byte[] other = (byte[]) codec.encode("session", profiles("other"));
+
+    codec.write("session", profiles("id")).await();
+    codec.write("session", profiles("other")).await();
+
+    assertArrayEquals(first, same);
+    assertFalse(Arrays.equals(first, other));
+    assertEquals(2, store.size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testReadsInlineProfilesAndMissingReferences() {
+    final StoredProfileCodec codec = codec(store);
+    final Object inline = BinaryProfileCodec.INSTANCE.encode(profiles("id"));
+    assertEquals("id", ((Map<String, UserProfile>) codec.decode(inline)).get("client").getId());
+
+    final Object reference = codec.encode("session", profiles("id"));
+    final StoredProfileCodec reader = codec(
+        new VertxLocalMapStore<>(vertx, new VertxMapStoreOptions().setNamespace("empty")));
+    reader.prefetch(reference).await();
+    assertNull(reader.decode(reference));
+  }
+
+  @Test
+  public void testDecodingNeverReadsTheStore() {
+    final Object reference = codec(store).write("session", profiles("id")).await();
+
+    // another node, which did not prefetch the profiles
+    assertNull(codec(store).decode(reference));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testDecodesOnAnEventLoopOncePrefetched() {
+    final RemoteStore remote = new RemoteStore(vertx, store);
+    final StoredProfileCodec writer = codec(store);
+    final Object reference = writer.write("session", profiles("id")).await();
+    // another node, with an empty cache
+    final StoredProfileCodec codec = new StoredProfileCodec(remote, 30, TimeUnit.MINUTES);
+
+    final Context eventLoop = vertx.getOrCreateContext();
+    final Promise<Map<String, UserProfile>> decoded = Promise.promise();
+    eventLoop.runOnContext(v -> codec.prefetch(reference)
+        .map(ignored -> (Map<String, UserProfile>) codec.decode(reference))
+        .onComplete(decoded));
+
+    assertEquals("id", decoded.future().await().get("client").getId());
+  }
+
+  @Test
+  public void testDiscardRemovesTheProfilesOfTheSession() {
+    final StoredProfileCodec codec = codec(store);
+    final Object reference = codec.write("session", profiles("id")).await();
+    final Object shared = codec.write(null, profiles("other")).await();
+    assertEquals(2, store.size());
+
+    codec.discard(reference).await();
+    codec.discard(shared).await();
+
+    // the shared profiles may belong to other sessions, they expire
+    assertEquals(1, store.size());
+    final StoredProfileCodec reader = codec(store);
+    reader.prefetch(reference).await();
+    assertNull(reader.decode(reference));
+  }
+
+  @Test
+  public void testReadsExtendTheTimeToLive() throws InterruptedException {
+    final StoredProfileCodec writer = new StoredProfileCodec(store, 400, TimeUnit.MILLISECONDS);
+    final Object reference = writer.write("session", profiles("id")).await();
+    Thread.sleep(250);
+    // read by another node, past half of the time to live
+    assertTrue(new StoredProfileCodec(store, 400, TimeUnit.MILLISECONDS).prefetch(reference).succeeded());
+    Thread.sleep(250);
+
+    final StoredProfileCodec reader = codec(store);
+    reader.prefetch(reference).await();
+    assertNotNull(reader.decode(reference));
+  }
+
+  @Test
+  public void testFreshProfilesAreNotWrittenBackWhenRead() {
+    final Object reference = codec(store).write("session", profiles("id")).await();
+    assertEquals(1, store.getMetrics().getWrites());
+
+    // other nodes, well before half of the time to live
+    for (int i = 0; i < 3; i++) {
+      final StoredProfileCodec reader = codec(store);
+      reader.prefetch(reference).await();
+      assertNotNull(reader.decode(reference));
+    }
+
+    assertEquals(1, store.getMetrics().getWrites());
+  }
+
+  @Test
+  public void testRejectsProfilesWhichNeverExpire() {
+    assertThrows(IllegalArgumentException.class, () -> new StoredProfileCodec(store, 0, TimeUnit.MILLISECONDS));
+  }
+
+  private static StoredProfileCodec codec(final VertxLocalMapStore<String, byte[]> store) {
+    return new StoredProfileCodec(store, 30, TimeUnit.MINUTES);
+  }
+
+  private static Map<String, UserProfile> profiles(final String id) {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId(id);
+    profile.setClientName("client");
+    profile.addAttribute("email", "jdoe@example.com");
+    final Map<String, UserProfile> profiles = new LinkedHashMap<>();
+    profiles.put("client", profile);
+    return profiles;
+  }
+
+  /** A store whose reads complete later, like a clustered store. */
+  private static final class RemoteStore implements AsyncStore<String, byte[]> {
+
+    private final Vertx vertx;
+    private final VertxLocalMapStore<String, byte[]> delegate;
+
+    private RemoteStore(final Vertx vertx, final VertxLocalMapStore<String, byte[]> delegate) {
+      this.vertx = vertx;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Future<Optional<byte[]>> getAsync(final String key) {
+      final Promise<Optional<byte[]>> promise = Promise.promise();
+      vertx.setTimer(10, id -> promise.complete(delegate.get(key)));
+      return promise.future();
+    }
+
+    @Override
+    public Future<Void> setAsync(final String key, final byte[] value) {
+      return delegate.setAsync(key, value);
+    }
+
+    @Override
+    public Future<Void> setAsync(final String key, final byte[] value, final long ttl, final TimeUnit unit) {
+      return delegate.setAsync(key, value, ttl, unit);
+    }
+
+    @Override
+    public Future<Void> removeAsync(final String key) {
+      return delegate.removeAsync(key);
+    }
+  }
+}
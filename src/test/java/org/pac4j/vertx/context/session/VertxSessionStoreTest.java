@@ -0,0 +1,234 @@
+package org.pac4j.vertx.context.session;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.Session;
+import io.vertx.ext.web.handler.SessionHandler;
+import io.vertx.ext.web.sstore.LocalSessionStore;
+import io.vertx.ext.web.sstore.SessionStore;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.core.util.Pac4jConstants;
+import org.pac4j.vertx.VertxWebContext;
+import org.pac4j.vertx.core.store.AsyncStore;
+import org.pac4j.vertx.core.store.VertxLocalMapStore;
+
+public class VertxSessionStoreTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testBuildFromTrackableSessions() {
+    final SessionStore sessionStore = LocalSessionStore.create(vertx);
+    final Session first = sessionStore.createSession(60_000);
+    final Session second = sessionStore.createSession(60_000);
+    sessionStore.put(first).await();
+    sessionStore.put(second).await();
+
+    final VertxSessionStore store = new VertxSessionStore(sessionStore);
+    final Map<Object, org.pac4j.core.context.session.SessionStore> stores =
+        store.buildFromTrackableSessionsAsync(Arrays.asList(first.id(), "missing", second.id())).await();
+
+    assertEquals(2, stores.size());
+    assertTrue(stores.containsKey(first.id()));
+    assertTrue(stores.containsKey(second.id()));
+    assertTrue(store.buildFromTrackableSession(null, second.id()).isPresent());
+  }
+
+  @Test
+  public void testUnchangedProfilesAreNotWrittenAgain() {
+    final SessionStore sessionStore = LocalSessionStore.create(vertx);
+    final Session session = sessionStore.createSession(60_000);
+    final VertxSessionStore store = new VertxSessionStore(sessionStore, session);
+    final Map<String, UserProfile> profiles = profiles("id");
+
+    store.set(null, Pac4jConstants.USER_PROFILES, profiles);
+    // saved back by pac4j, in a copy of the map it read
+    store.set(null, Pac4jConstants.USER_PROFILES, new LinkedHashMap<>(profiles));
+    store.set(null, Pac4jConstants.USER_PROFILES, profiles("other"));
+    store.set(null, Pac4jConstants.USER_PROFILES, null);
+    store.set(null, Pac4jConstants.USER_PROFILES, null);
+
+    assertEquals(3, store.getProfileWrites());
+    assertEquals(2, store.getSkippedProfileWrites());
+    assertNull(session.get(Pac4jConstants.USER_PROFILES));
+  }
+
+  @Test
+  public void testUnchangedProfilesAreNotStoredAgain() {
+    final VertxLocalMapStore<String, byte[]> profileStore = new VertxLocalMapStore<>(vertx);
+    final SessionStore sessionStore = LocalSessionStore.create(vertx);
+    final Session session = sessionStore.createSession(60_000);
+    final VertxSessionStore store = new VertxSessionStore(sessionStore, session,
+        new StoredProfileCodec(profileStore, 30, TimeUnit.MINUTES));
+
+    final Map<String, UserProfile> profiles = profiles("id");
+    store.set(null, Pac4jConstants.USER_PROFILES, profiles);
+    store.set(null, Pac4jConstants.USER_PROFILES, new LinkedHashMap<>(profiles));
+    store.set(null, Pac4jConstants.USER_PROFILES, profiles("other"));
+
+    assertEquals(1, store.getSkippedProfileWrites());
+    assertEquals(2, profileStore.getMetrics().getWrites());
+    // the profiles replaced are removed
+    assertEquals(1, profileStore.size());
+  }
+
+  @Test
+  public void testProfilesAreOnlyReplacedOnceStored() {
+    final FailingStore profileStore = new FailingStore(new VertxLocalMapStore<>(vertx));
+    final SessionStore sessionStore = LocalSessionStore.create(vertx);
+    final Session session = sessionStore.createSession(60_000);
+    final VertxSessionStore store = new VertxSessionStore(sessionStore, session,
+        new StoredProfileCodec(profileStore, 30, TimeUnit.MINUTES));
+    store.set(null, Pac4jConstants.USER_PROFILES, profiles("id"));
+    final Object stored = session.get(Pac4jConstants.USER_PROFILES);
+
+    profileStore.failWrites = true;
+    store.set(null, Pac4jConstants.USER_PROFILES, profiles("other"));
+
+    // the session and the store keep the former profiles
+    assertSame(stored, session.get(Pac4jConstants.USER_PROFILES));
+    assertEquals(1, profileStore.delegate.size());
+  }
+
+  @Test
+  public void testProfilesAreDecodedOncePerRequest() {
+    final CountingCodec codec = new CountingCodec();
+    final SessionStore sessionStore = LocalSessionStore.create(vertx);
+    final VertxSessionStore store = new VertxSessionStore(sessionStore, codec);
+    final Map<String, UserProfile> profiles = profiles("id");
+    final List<Object> read = new CopyOnWriteArrayList<>();
+
+    final Router router = Router.router(vertx);
+    router.route().handler(SessionHandler.create(sessionStore));
+    router.get("/login").handler(rc -> {
+      final VertxWebContext context = new VertxWebContext(rc);
+      store.set(context, Pac4jConstants.USER_PROFILES, profiles);
+      // the profiles set are read back as is
+      read.add(store.get(context, Pac4jConstants.USER_PROFILES).orElse(null));
+      rc.end();
+    });
+    router.get("/read").handler(rc -> {
+      final VertxWebContext context = new VertxWebContext(rc);
+      read.add(store.get(context, Pac4jConstants.USER_PROFILES).orElse(null));
+      read.add(store.get(context, Pac4jConstants.USER_PROFILES).orElse(null));
+      store.set(context, Pac4jConstants.USER_PROFILES, null);
+      read.add(store.get(context, Pac4jConstants.USER_PROFILES).orElse("none"));
+      rc.end();
+    });
+    final HttpServer server = vertx.createHttpServer().requestHandler(router).listen(0, "localhost").await();
+    final HttpClient client = vertx.createHttpClient();
+
+    final HttpClientResponse login = send(client, server, "/login", null);
+    assertSame(profiles, read.get(0));
+    assertEquals(0, codec.decodes.get());
+
+    send(client, server, "/read", login.headers().get("set-cookie").split(";")[0]);
+    assertEquals(profiles, read.get(1));
+    assertSame(read.get(1), read.get(2));
+    assertEquals("none", read.get(3));
+    assertEquals(1, codec.decodes.get());
+  }
+
+  private static HttpClientResponse send(final HttpClient client, final HttpServer server, final String path,
+                                         final String cookie) {
+    final HttpClientResponse response = client.request(HttpMethod.GET, server.actualPort(), "localhost", path)
+        .compose(request -> {
+          if (cookie != null) {
+            request.putHeader("cookie", cookie);
+          }
+          return request.send();
+        }).await();
+    response.body().await();
+    assertEquals(200, response.statusCode());
+    return response;
+  }
+
+  private static Map<String, UserProfile> profiles(final String id) {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId(id);
+    profile.setClientName("client");
+    final Map<String, UserProfile> profiles = new LinkedHashMap<>();
+    profiles.put("client", profile);
+    return profiles;
+  }
+
+  /** A codec counting the decodings. */
+  private static final class CountingCodec implements ProfileCodec {
+
+    private final AtomicInteger decodes = new AtomicInteger();
+
+    @Override
+    public Object encode(final Object profiles) {
+      return JavaProfileCodec.INSTANCE.encode(profiles);
+    }
+
+    @Override
+    public Object decode(final Object value) {
+      decodes.incrementAndGet();
+      return JavaProfileCodec.INSTANCE.decode(value);
+    }
+  }
+
+  /** A store whose writes can be made to fail. */
+  private static final class FailingStore implements AsyncStore<String, byte[]> {
+
+    private final VertxLocalMapStore<String, byte[]> delegate;
+    private boolean failWrites;
+
+    private FailingStore(final VertxLocalMapStore<String, byte[]> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public Future<Optional<byte[]>> getAsync(final String key) {
+      return delegate.getAsync(key);
+    }
+
+    @Override
+    public Future<Void> setAsync(final String key, final byte[] value) {
+      return setAsync(key, value, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Future<Void> setAsync(final String key, final byte[] value, final long ttl, final TimeUnit unit) {
+      return failWrites ? Future.failedFuture("unavailable") : delegate.setAsync(key, value, ttl, unit);
+    }
+
+    @Override
+    public Future<Void> removeAsync(final String key) {
+      return delegate.removeAsync(key);
+    }
+  }
+}
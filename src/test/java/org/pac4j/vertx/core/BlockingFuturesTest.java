@@ -0,0 +1,51 @@
+package org.pac4j.vertx.core;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.exception.TechnicalException;
+
+public class BlockingFuturesTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testAwaitOnWorker() {
+    final String result = vertx.executeBlocking(() -> {
+      final Promise<String> promise = Promise.promise();
+      vertx.setTimer(20, id -> promise.complete("done"));
+      return BlockingFutures.await(promise.future().map(String::toUpperCase), 1, TimeUnit.SECONDS);
+    }).await();
+    assertEquals("DONE", result);
+  }
+
+  @Test
+  public void testAwaitOnEventLoop() {
+    final Promise<Throwable> failure = Promise.promise();
+    vertx.runOnContext(v -> {
+      try {
+        BlockingFutures.await(Promise.promise().future(), 1, TimeUnit.SECONDS);
+        failure.complete(null);
+      } catch (TechnicalException e) {
+        failure.complete(e);
+      }
+    });
+    assertTrue(failure.future().await() instanceof TechnicalException);
+  }
+}
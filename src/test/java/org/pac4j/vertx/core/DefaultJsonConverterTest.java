@@ -0,0 +1,67 @@
+package org.pac4j.vertx.core;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.vertx.core.json.JsonObject;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.exception.TechnicalException;
+
+public class DefaultJsonConverterTest {
+
+  @Test
+  public void testRoundTrip() {
+    final JsonConverter converter = new DefaultJsonConverter();
+    final Sample sample = new Sample("id", 42, new byte[] {1, 2, 3}, Map.of("nested", List.of("a", "b")));
+
+    final Object encoded = converter.encodeObject(sample);
+    // as received from the event bus, with the nested values wrapped into Vert.x JSON types
+    final Sample decoded = (Sample) converter.decodeObject(((JsonObject) encoded).copy());
+
+    assertEquals(sample.id, decoded.id);
+    assertEquals(sample.count, decoded.count);
+    assertArrayEquals(sample.data, decoded.data);
+    assertEquals(sample.attributes, decoded.attributes);
+  }
+
+  @Test
+  public void testDecodeFromJsonString() {
+    final JsonConverter converter = new DefaultJsonConverter();
+    final Object encoded = converter.encodeObject(new Sample("id", 1, new byte[] {4}, Map.of()));
+
+    final Sample decoded = (Sample) converter.decodeObject(new JsonObject(((JsonObject) encoded).encode()));
+
+    assertEquals("id", decoded.id);
+    assertArrayEquals(new byte[] {4}, decoded.data);
+  }
+
+  @Test
+  public void testAllowlist() {
+    final JsonConverter converter = new DefaultJsonConverter(List.of("org.pac4j."));
+    final JsonObject encoded = (JsonObject) converter.encodeObject(new Sample("id", 1, new byte[0], Map.of()));
+    assertEquals(Sample.class, converter.decodeObject(encoded).getClass());
+
+    encoded.put("class", "java.util.ArrayList");
+    assertThrows(TechnicalException.class, () -> converter.decodeObject(encoded));
+  }
+
+  public static class Sample {
+    private String id;
+    private int count;
+    private byte[] data;
+    private Map<String, Object> attributes;
+
+    public Sample() {
+    }
+
+    public Sample(final String id, final int count, final byte[] data, final Map<String, Object> attributes) {
+      this.id = id;
+      this.count = count;
+      this.data = data;
+      this.attributes = attributes;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package org.pac4j.vertx.core.eventbus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.profile.CommonProfile;
+import org.pac4j.core.profile.UserProfile;
+import org.pac4j.vertx.auth.ImmutablePac4jUser;
+import org.pac4j.vertx.auth.Pac4jUser;
+
+public class Pac4jMessageCodecsTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+    Pac4jMessageCodecs.register(vertx.eventBus());
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testLocalDeliveryPassesAnImmutableUser() {
+    final Pac4jUser user = new ImmutablePac4jUser(List.of(profile()));
+    vertx.eventBus().consumer("user", message -> message.reply(message.body()));
+
+    final Object received = vertx.eventBus().request("user", user).await().body();
+
+    assertSame(user, received);
+  }
+
+  @Test
+  public void testLocalDeliveryCopiesAMutableUser() {
+    final Pac4jUser user = new Pac4jUser(List.of(profile()));
+    user.attributes().put("source", "test");
+    vertx.eventBus().consumer("user", message -> message.reply(message.body()));
+
+    final Pac4jUser received = (Pac4jUser) vertx.eventBus().request("user", user).await().body();
+
+    assertNotSame(user, received);
+    assertEquals(user, received);
+    assertEquals("test", received.attributes().getString("source"));
+    received.profiles().clear();
+    assertEquals(1, user.profiles().size());
+  }
+
+  @Test
+  public void testWireRoundTrip() {
+    final Pac4jUser user = new Pac4jUser(List.of(profile()));
+    user.attributes().put("source", "test");
+    final Pac4jUserMessageCodec codec = new Pac4jUserMessageCodec();
+    final Buffer buffer = Buffer.buffer().appendByte((byte) 7);
+    codec.encodeToWire(buffer, user);
+
+    final Pac4jUser decoded = codec.decodeFromWire(1, buffer);
+
+    final UserProfile profile = decoded.profiles().get(0);
+    assertEquals(CommonProfile.class, profile.getClass());
+    assertEquals("id", profile.getId());
+    assertEquals(List.of("admin"), List.copyOf(profile.getRoles()));
+    assertEquals("jdoe@example.com", profile.getAttribute("email"));
+    assertEquals(user.principal(), decoded.principal());
+    assertEquals("test", decoded.attributes().getString("source"));
+  }
+
+  private static CommonProfile profile() {
+    final CommonProfile profile = new CommonProfile();
+    profile.setId("id");
+    profile.setClientName("client");
+    profile.addRole("admin");
+    profile.addAttribute("email", "jdoe@example.com");
+    return profile;
+  }
+}
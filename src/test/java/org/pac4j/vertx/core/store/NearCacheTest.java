@@ -0,0 +1,45 @@
+package org.pac4j.vertx.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class NearCacheTest {
+
+  @Test
+  public void testInvalidationDuringReadIsNotCached() {
+    final NearCache<String, String> cache = new NearCache<>(10, 60_000);
+
+    final long version = cache.startRead("key");
+    cache.invalidate("key");
+    cache.endRead("key", "stale", version);
+
+    assertNull(cache.get("key"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testInvalidationOfAnotherKeyDoesNotBlockCaching() {
+    final NearCache<String, String> cache = new NearCache<>(10, 60_000);
+
+    final long version = cache.startRead("key");
+    cache.invalidate("other");
+    cache.endRead("key", "value", version);
+
+    assertEquals("value", cache.get("key"));
+  }
+
+  @Test
+  public void testLaterReadIsCached() {
+    final NearCache<String, String> cache = new NearCache<>(10, 60_000);
+
+    final long stale = cache.startRead("key");
+    cache.invalidate("key");
+    final long fresh = cache.startRead("key");
+    cache.endRead("key", "stale", stale);
+    cache.endRead("key", "fresh", fresh);
+
+    assertEquals("fresh", cache.get("key"));
+  }
+}
@@ -0,0 +1,136 @@
+package org.pac4j.vertx.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VertxClusteredMapStoreTest {
+
+  private Vertx vertx;
+  private VertxClusteredMapStore<String, String> store;
+  private VertxClusteredMapStore<String, String> otherNode;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+    final VertxMapStoreOptions options = new VertxMapStoreOptions().setNamespace("test").setNearCacheMaxEntries(10)
+        .setNearCacheMaxStalenessMillis(60_000);
+    store = new VertxClusteredMapStore<>(vertx, options);
+    otherNode = new VertxClusteredMapStore<>(vertx, options);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testReadYourWrite() {
+    store.setAsync("key", "first").await();
+    assertEquals(Optional.of("first"), store.getAsync("key").await());
+
+    store.setAsync("key", "second");
+    assertEquals(Optional.of("second"), store.getAsync("key").await());
+
+    store.removeAsync("key");
+    assertEquals(Optional.empty(), store.getAsync("key").await());
+  }
+
+  @Test
+  public void testWriteInvalidatesTheOtherNearCaches() throws InterruptedException {
+    store.setAsync("key", "first").await();
+    // the invalidation of the first write may reach the other node after its read, read again until cached
+    for (int i = 0; i < 100 && otherNode.nearCacheSize() == 0; i++) {
+      assertEquals(Optional.of("first"), otherNode.getAsync("key").await());
+      Thread.sleep(10);
+    }
+    assertEquals(1, otherNode.nearCacheSize());
+
+    store.setAsync("key", "second").await();
+    waitUntilEmpty(otherNode);
+
+    assertEquals(Optional.of("second"), otherNode.getAsync("key").await());
+  }
+
+  @Test
+  public void testOwnInvalidationsAreIgnored() throws InterruptedException {
+    final Promise<Message<Object>> published = Promise.promise();
+    vertx.eventBus().addOutboundInterceptor(dc -> {
+      published.tryComplete(dc.message());
+      dc.next();
+    });
+    store.setAsync("key", "first").await();
+    final Message<Object> invalidation = published.future().await();
+    assertEquals(Optional.of("first"), store.getAsync("key").await());
+    assertEquals(Optional.of("first"), otherNode.getAsync("key").await());
+
+    // the invalidation published by the store again, as received from the event bus
+    vertx.eventBus().publish(invalidation.address(), invalidation.body(),
+        new DeliveryOptions().setHeaders(invalidation.headers()));
+    waitUntilEmpty(otherNode);
+    Thread.sleep(50);
+
+    assertEquals(1, store.nearCacheSize());
+  }
+
+  @Test
+  public void testOneTimeValuesAreAlwaysReadFromTheCluster() {
+    final VertxMapStoreOptions options = new VertxMapStoreOptions().setNamespace("nonces").setNearCacheMaxEntries(10)
+        .setOneTimeValues(true);
+    final VertxClusteredMapStore<String, String> nonces = new VertxClusteredMapStore<>(vertx, options);
+    final VertxClusteredMapStore<String, String> otherNonces = new VertxClusteredMapStore<>(vertx, options);
+
+    nonces.setAsync("nonce", "value").await();
+    assertEquals(Optional.of("value"), otherNonces.getAsync("nonce").await());
+    assertEquals(0, otherNonces.nearCacheSize());
+
+    // no invalidation to wait for
+    nonces.removeAsync("nonce").await();
+    assertEquals(Optional.empty(), otherNonces.getAsync("nonce").await());
+  }
+
+  private static void waitUntilEmpty(final VertxClusteredMapStore<?, ?> store) throws InterruptedException {
+    for (int i = 0; i < 100 && store.nearCacheSize() > 0; i++) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, store.nearCacheSize());
+  }
+
+  @Test
+  public void testNamespacesAreIsolated() {
+    final VertxClusteredMapStore<String, String> other = new VertxClusteredMapStore<>(vertx,
+        new VertxMapStoreOptions().setNamespace("other"));
+    store.set("key", "value");
+
+    assertEquals(Optional.empty(), other.get("key"));
+    assertEquals(Optional.empty(), vertx.sharedData().getAsyncMap("pac4jSharedData").compose(map -> map.get("key"))
+        .map(Optional::ofNullable).await());
+    assertEquals("value", vertx.sharedData().getAsyncMap("pac4jSharedData.test").compose(map -> map.get("key"))
+        .await());
+  }
+
+  @Test
+  public void testBulkOperations() {
+    final Map<String, String> values = new LinkedHashMap<>();
+    values.put("key0", "value0");
+    values.put("key1", "value1");
+    values.put("key2", "value2");
+
+    store.setAll(values);
+    assertEquals(Map.of("key0", "value0", "key2", "value2"), otherNode.getAll(List.of("key0", "missing", "key2")));
+
+    store.removeAll(List.of("key0", "key1", "missing"));
+    assertEquals(Map.of("key2", "value2"), store.getAll(values.keySet()));
+    assertEquals(Map.of("key2", "value2"), otherNode.getAllAsync(values.keySet()).await());
+  }
+}
@@ -0,0 +1,130 @@
+package org.pac4j.vertx.core.store;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Vertx;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VertxLocalMapStoreTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testExpiration() throws InterruptedException {
+    final VertxLocalMapStore<String, String> store = new VertxLocalMapStore<>(vertx);
+    store.set("short", "value", 10, TimeUnit.MILLISECONDS);
+    store.set("forever", "value");
+
+    Thread.sleep(50);
+
+    assertFalse(store.get("short").isPresent());
+    assertTrue(store.get("forever").isPresent());
+    assertEquals(1, store.getMetrics().getExpirations());
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() throws InterruptedException {
+    final VertxLocalMapStore<String, String> store =
+        new VertxLocalMapStore<>(vertx, new VertxMapStoreOptions().setMaxEntries(10));
+    for (int i = 0; i < 10; i++) {
+      store.set("key" + i, "value");
+      Thread.sleep(2);
+    }
+    store.get("key0");
+
+    store.set("key10", "value");
+
+    assertTrue(store.size() <= 10);
+    assertTrue(store.get("key0").isPresent());
+    assertFalse(store.get("key1").isPresent());
+    assertTrue(store.get("key10").isPresent());
+    assertEquals(11 - store.size(), store.getMetrics().getEvictions());
+  }
+
+  @Test
+  public void testByteArraysAreCopied() {
+    final VertxLocalMapStore<String, byte[]> store = new VertxLocalMapStore<>(vertx);
+    final byte[] value = {1, 2, 3};
+    store.set("key", value);
+
+    value[0] = 0;
+    store.get("key").get()[1] = 0;
+
+    assertArrayEquals(new byte[] {1, 2, 3}, store.get("key").get());
+  }
+
+  @Test
+  public void testStoresOfANamespaceShareTheAccessOrder() {
+    final VertxMapStoreOptions options = new VertxMapStoreOptions().setNamespace("bounded").setMaxEntries(2);
+    final VertxLocalMapStore<String, String> store = new VertxLocalMapStore<>(vertx, options);
+    final VertxLocalMapStore<String, String> other = new VertxLocalMapStore<>(vertx, options);
+    store.set("key0", "value");
+    store.set("key1", "value");
+    other.get("key0");
+
+    other.set("key2", "value");
+
+    assertEquals(2, store.size());
+    assertTrue(store.get("key0").isPresent());
+    assertFalse(store.get("key1").isPresent());
+  }
+
+  @Test
+  public void testNamespacesAreIsolated() {
+    final VertxLocalMapStore<String, String> store = new VertxLocalMapStore<>(vertx,
+        new VertxMapStoreOptions().setNamespace("first"));
+    final VertxLocalMapStore<String, String> other = new VertxLocalMapStore<>(vertx,
+        new VertxMapStoreOptions().setNamespace("second"));
+    final VertxLocalMapStore<String, String> shared = new VertxLocalMapStore<>(vertx);
+    store.set("key", "first");
+    other.set("key", "second");
+
+    assertEquals("pac4jSharedData", VertxMapStoreBase.mapName(null));
+    assertEquals("pac4jSharedData", VertxMapStoreBase.mapName(""));
+    assertEquals("pac4jSharedData.first", VertxMapStoreBase.mapName("first"));
+    assertEquals(Optional.of("first"), store.get("key"));
+    assertEquals(Optional.of("second"), other.get("key"));
+    assertFalse(shared.get("key").isPresent());
+    assertEquals(1, vertx.sharedData().getLocalMap("pac4jSharedData.first").size());
+    assertEquals(1, VertxMapStoreBase.metrics(vertx).get("pac4jSharedData.second").getWrites());
+
+    other.remove("key");
+    assertEquals(Optional.of("first"), store.get("key"));
+  }
+
+  @Test
+  public void testBulkOperations() {
+    final VertxLocalMapStore<String, String> store = new VertxLocalMapStore<>(vertx);
+    final Map<String, String> values = new LinkedHashMap<>();
+    values.put("key0", "value0");
+    values.put("key1", "value1");
+    values.put("key2", "value2");
+
+    store.setAll(values);
+    assertEquals(Map.of("key0", "value0", "key2", "value2"), store.getAll(List.of("key0", "missing", "key2")));
+
+    store.removeAll(List.of("key0", "key1", "missing"));
+    assertEquals(Map.of("key2", "value2"), store.getAll(values.keySet()));
+    assertEquals(Map.of("key2", "value2"), store.getAllAsync(values.keySet()).await());
+  }
+}
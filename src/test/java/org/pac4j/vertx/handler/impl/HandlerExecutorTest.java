@@ -0,0 +1,94 @@
+package org.pac4j.vertx.handler.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HandlerExecutorTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testDedicatedPoolMetrics() {
+    final WorkerPoolOptions pool = new WorkerPoolOptions().setName("auth").setPoolSize(2);
+    final HandlerExecutor executor = new HandlerExecutor(vertx, ExecutionMode.WORKER, null, pool, false);
+
+    final List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      results.add(executor.execute(() -> {
+        Thread.sleep(20);
+        return Thread.currentThread().getName();
+      }));
+    }
+    Future.all(results).await();
+
+    for (final Future<String> result : results) {
+      assertTrue(result.result().startsWith("auth"));
+    }
+    final ExecutorMetrics metrics = HandlerExecutor.metrics(vertx).get("auth");
+    assertSame(executor.getMetrics(), metrics);
+    assertEquals(6, metrics.getSubmitted());
+    assertEquals(6, metrics.getCompleted());
+    assertEquals(0, metrics.getQueued());
+    // two threads for six tasks of 20 ms, the last ones waited
+    assertTrue(metrics.getMaxWaitNanos() > 0);
+  }
+
+  @Test
+  public void testFailureIsPassedAsIs() {
+    final HandlerExecutor executor = new HandlerExecutor(vertx, ExecutionMode.WORKER, null, null, false);
+    final IllegalArgumentException failure = new IllegalArgumentException("bad credentials");
+
+    final Future<Object> result = executor.execute(() -> {
+      throw failure;
+    });
+
+    assertSame(failure, assertThrows(IllegalArgumentException.class, result::await));
+  }
+
+  @Test
+  public void testGivenWorkerExecutorsAreMeasuredApart() {
+    final WorkerExecutor first = vertx.createSharedWorkerExecutor("first");
+    final WorkerExecutor second = vertx.createSharedWorkerExecutor("second");
+
+    final HandlerExecutor firstExecutor = new HandlerExecutor(vertx, ExecutionMode.WORKER, first, null, false);
+    final HandlerExecutor secondExecutor = new HandlerExecutor(vertx, ExecutionMode.WORKER, second, null, false);
+
+    assertNotEquals(firstExecutor.getMetrics().getPoolName(), secondExecutor.getMetrics().getPoolName());
+    // a given executor is left open
+    firstExecutor.close().await();
+    assertEquals("first", first.executeBlocking(() -> Thread.currentThread().getName()).await().substring(0, 5));
+  }
+
+  @Test
+  public void testCloseReleasesTheCreatedPool() {
+    final WorkerPoolOptions pool = new WorkerPoolOptions().setName("closed");
+    final HandlerExecutor executor = new HandlerExecutor(vertx, ExecutionMode.WORKER, null, pool, false);
+    executor.execute(() -> null).await();
+
+    executor.close().await();
+
+    assertThrows(RuntimeException.class, () -> executor.execute(() -> null).await());
+  }
+}
@@ -0,0 +1,74 @@
+package org.pac4j.vertx.handler.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LogoutFanOutTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testConcurrencyLimitAndTimeout() {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    final List<LogoutTarget> targets = new ArrayList<>();
+    for (int i = 0; i < 12; i++) {
+      targets.add(LogoutTarget.of("target" + i, () -> {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        final Promise<Void> promise = Promise.promise();
+        vertx.setTimer(50, id -> {
+          inFlight.decrementAndGet();
+          promise.complete();
+        });
+        return promise.future();
+      }));
+    }
+    targets.add(LogoutTarget.of("stalled", () -> Promise.<Void>promise().future()));
+    targets.add(LogoutTarget.of("broken", () -> Future.failedFuture("down")));
+
+    final LogoutSummary summary = new LogoutFanOut(vertx, 4, 200).run(targets).await();
+
+    assertFalse(summary.isSuccess());
+    assertEquals(12, summary.getSucceeded().size());
+    assertEquals(2, summary.getFailed().size());
+    assertTrue(summary.getFailed().get("stalled") instanceof TimeoutException);
+    assertTrue(maxInFlight.get() <= 4);
+  }
+
+  @Test
+  public void testNoTarget() {
+    assertTrue(new LogoutFanOut(vertx, 4, 200).run(new ArrayList<>()).await().isSuccess());
+  }
+
+  @Test
+  public void testDuplicateNamesAreRejected() {
+    final LogoutFanOut fanOut = new LogoutFanOut(vertx, 2, 1000);
+    final List<LogoutTarget> targets = List.of(LogoutTarget.of("target", Future::succeededFuture),
+        LogoutTarget.of("target", Future::succeededFuture));
+
+    assertThrows(IllegalArgumentException.class, () -> fanOut.run(targets));
+  }
+}
@@ -0,0 +1,133 @@
+package org.pac4j.vertx.handler.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientResponse;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.sstore.LocalSessionStore;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.core.config.Config;
+import org.pac4j.vertx.VertxFrameworkParameters;
+import org.pac4j.vertx.VertxWebContext;
+import org.pac4j.vertx.auth.Pac4jUser;
+import org.pac4j.vertx.context.session.VertxSessionStore;
+
+public class SecurityHandlerTest {
+
+  private Vertx vertx;
+  private VertxSessionStore sessionStore;
+  private Config config;
+  private final AtomicReference<Thread> logicThread = new AtomicReference<>();
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+    sessionStore = new VertxSessionStore(LocalSessionStore.create(vertx));
+    config = new Config();
+    config.setSecurityLogic((cfg, granted, clients, authorizers, matchers, parameters) -> {
+      logicThread.set(Thread.currentThread());
+      try {
+        return granted.adapt(new VertxWebContext(((VertxFrameworkParameters) parameters).routingContext()),
+            sessionStore, List.of());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testInlineRunsOnTheEventLoop() {
+    final Dispatch dispatch = dispatch(new SecurityHandlerOptions().setExecutionMode(ExecutionMode.INLINE));
+
+    assertTrue(dispatch.logicOnEventLoop);
+    assertSame(dispatch.original, dispatch.next);
+  }
+
+  @Test
+  public void testWorkerRunsOffTheEventLoop() {
+    final Dispatch dispatch = dispatch(new SecurityHandlerOptions().setExecutionMode(ExecutionMode.WORKER));
+
+    assertFalse(dispatch.logicOnEventLoop);
+    assertTrue(dispatch.logicThread.getName().startsWith("vert.x-worker-thread"));
+    assertSame(dispatch.original, dispatch.next);
+  }
+
+  @Test
+  public void testVirtualThreadRunsOffTheEventLoop() {
+    assumeTrue(Runtime.version().feature() >= 21, "virtual threads require JDK 21+");
+    final Dispatch dispatch = dispatch(new SecurityHandlerOptions().setExecutionMode(ExecutionMode.VIRTUAL_THREAD));
+
+    assertFalse(dispatch.logicOnEventLoop);
+    assertFalse(dispatch.logicThread.getName().startsWith("vert.x-worker-thread"));
+    assertSame(dispatch.original, dispatch.next);
+  }
+
+  @Test
+  public void testClientExecutionModes() {
+    final SecurityHandlerOptions options = new SecurityHandlerOptions().setExecutionMode(ExecutionMode.WORKER)
+        .setClientExecutionMode("HeaderClient", ExecutionMode.INLINE);
+
+    assertEquals(ExecutionMode.INLINE, SecurityHandler.executionMode(options.setClients("HeaderClient")));
+    assertEquals(ExecutionMode.WORKER, SecurityHandler.executionMode(options.setClients("LdapClient")));
+    // the client which may block is never run on the event loop
+    assertEquals(ExecutionMode.WORKER, SecurityHandler.executionMode(options.setClients("HeaderClient,LdapClient")));
+    assertEquals(ExecutionMode.WORKER, SecurityHandler.executionMode(options.setClients("")));
+
+    final Dispatch dispatch = dispatch(options.setClients("HeaderClient"));
+    assertTrue(dispatch.logicOnEventLoop);
+  }
+
+  private Dispatch dispatch(final SecurityHandlerOptions options) {
+    final SecurityHandler handler = new SecurityHandler(vertx, sessionStore, config, options);
+    final Dispatch dispatch = new Dispatch();
+    final Router router = Router.router(vertx);
+    router.get("/protected").handler(rc -> {
+      dispatch.original = Vertx.currentContext();
+      rc.next();
+    });
+    router.get("/protected").handler(handler);
+    router.get("/protected").handler(rc -> {
+      dispatch.next = Vertx.currentContext();
+      dispatch.user = rc.user();
+      rc.end("ok");
+    });
+    final HttpServer server = vertx.createHttpServer().requestHandler(router).listen(0, "localhost").await();
+    final HttpClient client = vertx.createHttpClient();
+
+    final HttpClientResponse response = client.request(HttpMethod.GET, server.actualPort(), "localhost", "/protected")
+        .compose(request -> request.send()).await();
+    response.body().await();
+
+    assertEquals(200, response.statusCode());
+    assertTrue(dispatch.user instanceof Pac4jUser);
+    dispatch.logicThread = logicThread.get();
+    dispatch.logicOnEventLoop = dispatch.logicThread.getName().startsWith("vert.x-eventloop-thread");
+    return dispatch;
+  }
+
+  private static final class Dispatch {
+    private volatile Context original;
+    private volatile Context next;
+    private volatile Object user;
+    private Thread logicThread;
+    private boolean logicOnEventLoop;
+  }
+}
@@ -0,0 +1,82 @@
+package org.pac4j.vertx.handler.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.Session;
+import io.vertx.ext.web.sstore.LocalSessionStore;
+import io.vertx.ext.web.sstore.SessionStore;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.vertx.context.session.VertxSessionStore;
+import org.pac4j.vertx.core.store.VertxLocalMapStore;
+
+public class VertxSessionLogoutHandlerTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testDestroysTheRecordedSessions() {
+    final SessionStore sessions = LocalSessionStore.create(vertx);
+    final Session first = sessions.createSession(60_000);
+    final Session second = sessions.createSession(60_000);
+    final Session kept = sessions.createSession(60_000);
+    sessions.put(first).await();
+    sessions.put(second).await();
+    sessions.put(kept).await();
+
+    final VertxSessionLogoutHandler handler = new VertxSessionLogoutHandler(vertx,
+        new VertxSessionStore(sessions), 2, 1000);
+    final VertxLocalMapStore<String, Object> records = new VertxLocalMapStore<>(vertx);
+    records.set("sid1", first.id());
+    records.set("sid2", second.id());
+    records.set("gone", "unknown-session");
+    handler.setStore(records);
+
+    final LogoutSummary summary = handler.destroySessionsBack(List.of("sid1", "sid2", "gone", "missing")).await();
+
+    assertTrue(summary.isSuccess());
+    assertEquals(List.of("session:" + first.id(), "session:" + second.id()), summary.getSucceeded());
+    assertNull(sessions.get(first.id()).await());
+    assertNull(sessions.get(second.id()).await());
+    assertEquals(kept.id(), sessions.get(kept.id()).await().id());
+    assertFalse(records.get("sid1").isPresent());
+    assertFalse(records.get("sid2").isPresent());
+  }
+
+  @Test
+  public void testBackChannelLogoutDoesNotWait() throws InterruptedException {
+    final SessionStore sessions = LocalSessionStore.create(vertx);
+    final Session session = sessions.createSession(60_000);
+    sessions.put(session).await();
+    final VertxSessionLogoutHandler handler = new VertxSessionLogoutHandler(vertx,
+        new VertxSessionStore(sessions), 2, 1000);
+    final VertxLocalMapStore<String, Object> records = new VertxLocalMapStore<>(vertx);
+    records.set("sid", session.id());
+    handler.setStore(records);
+
+    // called from the event loop, which would be blocked by a wait for the deletion
+    vertx.runOnContext(v -> handler.destroySessionBack(null, "sid"));
+
+    for (int i = 0; i < 100 && records.get("sid").isPresent(); i++) {
+      Thread.sleep(10);
+    }
+    assertFalse(records.get("sid").isPresent());
+    assertNull(sessions.get(session.id()).await());
+  }
+}
@@ -0,0 +1,41 @@
+package org.pac4j.vertx.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+public class MicrometerPac4jMetricsTest {
+
+  @Test
+  public void testMetersAreRegisteredOnce() {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final MicrometerPac4jMetrics metrics = new MicrometerPac4jMetrics(registry);
+
+    metrics.authentication("HeaderClient", 1000, true);
+    final Timer timer = registry.get("pac4j.authentication").tags("client", "HeaderClient", "outcome", "success")
+        .timer();
+    metrics.authentication("HeaderClient", 1000, true);
+
+    assertSame(timer, registry.get("pac4j.authentication").tags("client", "HeaderClient", "outcome", "success")
+        .timer());
+    assertEquals(2, timer.count());
+  }
+
+  @Test
+  public void testTagValuesAreBounded() {
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    final MicrometerPac4jMetrics metrics = new MicrometerPac4jMetrics(registry);
+
+    for (int i = 0; i < MicrometerPac4jMetrics.MAX_TAG_VALUES + 10; i++) {
+      metrics.callback("client" + i, 1000, true);
+    }
+
+    assertEquals(MicrometerPac4jMetrics.MAX_TAG_VALUES + 1, registry.find("pac4j.callback").tag("outcome", "success")
+        .timers().size());
+    assertEquals(10, registry.get("pac4j.callback").tags("client", MicrometerPac4jMetrics.OTHER_TAG_VALUE,
+        "outcome", "success").timer().count());
+  }
+}
@@ -0,0 +1,51 @@
+package org.pac4j.vertx.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.vertx.core.Vertx;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.pac4j.vertx.core.store.VertxLocalMapStore;
+
+public class Pac4jMetricsTest {
+
+  private Vertx vertx;
+
+  @BeforeEach
+  public void setUp() {
+    vertx = Vertx.vertx();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    vertx.close().await();
+  }
+
+  @Test
+  public void testNoneByDefault() {
+    assertSame(Pac4jMetrics.NONE, Pac4jMetrics.of(vertx));
+  }
+
+  @Test
+  public void testStoreOperationsAreRecorded() {
+    final List<String> operations = new CopyOnWriteArrayList<>();
+    Pac4jMetrics.register(vertx, new Pac4jMetrics() {
+      @Override
+      public void storeOperation(final String mapName, final String operation, final long nanos,
+                                 final boolean success) {
+        operations.add(operation);
+      }
+    });
+
+    final VertxLocalMapStore<String, String> store = new VertxLocalMapStore<>(vertx);
+    store.set("key", "value");
+    store.get("key");
+    store.remove("key");
+
+    assertEquals(List.of("set", "get", "remove"), operations);
+  }
+}